@@ -1,15 +1,57 @@
+import controllers.Evaluator;
+import controllers.OpeningBook;
 import controllers.RuleController;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 import models.Board;
 import models.MoveCommand;
 import models.MoveFactory;
 import models.Player;
 
+/**
+ * Arbitre : fait jouer JoueurA contre JoueurB (deux processus JoueurExterne) et
+ * affiche les coups puis la ligne RESULT.
+ *
+ * Mode local (java Arbitre local [parties] [threads] [tempsParCoupMs]) : les
+ * joueurs sont des JoueurExterne de cette JVM, derrière le même protocole (voir
+ * LocalJoueur), et de nombreuses parties se jouent en parallèle. Pour chaque
+ * partie seule la ligne RESULT est affichée (plus les coups si elle finit par
+ * TIMEOUT ou INVALID), puis un bilan : de quoi vérifier les règles et repérer une
+ * régression du moteur sur des milliers de parties par heure.
+ *
+ * Mode pool (java Arbitre pool [parties] [tables] [tempsParCoupMs]) : mêmes
+ * parties et même bilan, mais contre de vrais processus JoueurExterne. Chaque
+ * table est une paire de processus qui enchaîne les parties : avant chacune,
+ * l'arbitre envoie "NEWGAME A" (ou B) et attend READY, ce qui évite de démarrer
+ * et de chauffer deux JVM par partie. Une table dont un joueur a dépassé le temps
+ * est remplacée par deux nouveaux processus, de même qu'une table dont un processus
+ * est mort (la partie est alors comptée FAILED dans le bilan).
+ */
 public class Arbitre {
     private static final int TIMEOUT_SECONDS = 3;
+    private static final int MAX_MOVES = 400;
+    // Attente de READY après NEWGAME (inclut le démarrage d'un nouveau processus)
+    private static final long NEWGAME_TIMEOUT_MS = 30_000L;
 
     public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equalsIgnoreCase("local")) {
+            int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            long moveTimeMs = args.length > 3 ? Long.parseLong(args[3]) : TIMEOUT_SECONDS * 1000L;
+            playLocal(games, threads, moveTimeMs);
+            return;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("pool")) {
+            int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+            int tables = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            long moveTimeMs = args.length > 3 ? Long.parseLong(args[3]) : TIMEOUT_SECONDS * 1000L;
+            playPool(games, tables, moveTimeMs);
+            return;
+        }
+
         // On réutilise le même classpath que celui ayant servi à lancer Arbitre,
         // pour être sûr que JoueurExterne et tous les packages controllers/models
         // sont bien trouvés dans les processus enfants.
@@ -29,9 +71,22 @@ public class Arbitre {
                 new String[] { javaBin, "-cp", classpath, "JoueurExterne", "JoueurB" });
         //Process B = new ProcessBuilder("./B").start();
 
-        Joueur joueurA = new Joueur("A", A);
-        Joueur joueurB = new Joueur("B", B);
+        Joueur joueurA = new ProcessJoueur("A", A);
+        Joueur joueurB = new ProcessJoueur("B", B);
+
+        playGame(joueurA, joueurB, TIMEOUT_SECONDS * 1000L, System.out::println);
+
+        joueurA.destroy();
+        joueurB.destroy();
+        System.out.println("Fin.");
+    }
 
+    /**
+     * Joue une partie de joueurA (qui commence) contre joueurB. log reçoit les
+     * lignes "A -> 13B" puis la ligne RESULT, qui est aussi renvoyée.
+     */
+    static String playGame(Joueur joueurA, Joueur joueurB, long timeoutMillis, Consumer<String> log)
+            throws IOException {
         // Etat interne de la partie (plateau + scores) selon les règles 2025
         Board board = new Board();
         Player player1 = new Player(0, "Player 1");
@@ -50,13 +105,14 @@ public class Arbitre {
             // Reception du coup de l'adversaire
             courant.receive(coup);
             // reponse avec TIMEOUT
-            coup = courant.response(TIMEOUT_SECONDS);
+            coup = courant.response(timeoutMillis);
             if (coup == null) {
                 // Timeout : on termine la partie, en signalant TIMEOUT
                 int s1 = player1.getCaptured();
                 int s2 = player2.getCaptured();
-                System.out.println("RESULT TIMEOUT " + s1 + " " + s2);
-                break;
+                String result = "RESULT TIMEOUT " + s1 + " " + s2;
+                log.accept(result);
+                return result;
             }
             nbCoups++;
 
@@ -69,46 +125,212 @@ public class Arbitre {
                 // Coup invalide : on termine en le signalant
                 int s1 = player1.getCaptured();
                 int s2 = player2.getCaptured();
-                System.out.println("RESULT INVALID " + s1 + " " + s2);
-                break;
+                String result = "RESULT INVALID " + s1 + " " + s2;
+                log.accept(result);
+                return result;
             }
 
-            System.out.println(courant.nom + " -> " + coup);
+            log.accept(courant.nom + " -> " + coup);
 
             // Fin de partie par règles (captures ou < 10 graines)
             if (ruleController.isGameOver(board, players)) {
                 int s1 = player1.getCaptured();
                 int s2 = player2.getCaptured();
-                System.out.println("RESULT " + coup + " " + s1 + " " + s2);
-                break;
+                String result = "RESULT " + coup + " " + s1 + " " + s2;
+                log.accept(result);
+                return result;
             }
 
             // Limite de 400 coups au total (un coup = un joueur)
-            if (nbCoups == 400) {
+            if (nbCoups == MAX_MOVES) {
                 int s1 = player1.getCaptured();
                 int s2 = player2.getCaptured();
-                System.out.println("RESULT LIMIT " + s1 + " " + s2);
-                break;
+                String result = "RESULT LIMIT " + s1 + " " + s2;
+                log.accept(result);
+                return result;
             }
             // Changement de joueur
             Joueur tmp = courant;
             courant = autre;
             autre = tmp;
         }
-        joueurA.destroy();
-        joueurB.destroy();
-        System.out.println("Fin.");
     }
 
-    static class Joueur {
-        String nom;
+    // Mode local : games parties en parallèle sur threads threads, A commence toujours
+    private static void playLocal(int games, int threads, long moveTimeMs)
+            throws InterruptedException, ExecutionException {
+        // Un seul évaluateur (cache compris) et un seul livre pour tous les joueurs
+        Evaluator evaluator = JoueurExterne.defaultEvaluator();
+        OpeningBook book = JoueurExterne.defaultBook();
+        runGames(games, threads, () -> {
+            List<String> transcript = new ArrayList<>();
+            Joueur joueurA = new LocalJoueur("A", "JoueurA", moveTimeMs, evaluator, book);
+            Joueur joueurB = new LocalJoueur("B", "JoueurB", moveTimeMs, evaluator, book);
+            try {
+                playGame(joueurA, joueurB, moveTimeMs, transcript::add);
+            } finally {
+                joueurA.destroy();
+                joueurB.destroy();
+            }
+            return transcript;
+        });
+    }
+
+    // Mode pool : tables paires de processus, chacune jouant ses parties à la suite
+    private static void playPool(int games, int tables, long moveTimeMs)
+            throws IOException, InterruptedException, ExecutionException {
+        BlockingQueue<ProcessJoueur[]> idle = new LinkedBlockingQueue<>();
+        for (int t = 0; t < tables; t++) {
+            idle.add(startTable(moveTimeMs));
+        }
+        try {
+            runGames(games, tables, () -> {
+                List<String> transcript = new ArrayList<>();
+                ProcessJoueur[] table = idle.take();
+                try {
+                    if (!newGame(table)) {
+                        destroy(table);
+                        table = startTable(moveTimeMs);
+                        if (!newGame(table)) {
+                            throw new IOException("Player processes do not answer NEWGAME");
+                        }
+                    }
+                    String result = playGame(table[0], table[1], moveTimeMs, transcript::add);
+                    if (result.startsWith("RESULT TIMEOUT")) {
+                        // Le joueur en retard répondrait à la partie suivante : on remplace la table
+                        destroy(table);
+                        table = startTable(moveTimeMs);
+                    }
+                } catch (IOException e) {
+                    // Processus mort (OOM, plantage) : partie comptée en échec, table remplacée
+                    transcript.add("Error: " + e.getMessage());
+                    transcript.add("RESULT FAILED");
+                    destroy(table);
+                    table = startTable(moveTimeMs);
+                } finally {
+                    idle.add(table);
+                }
+                return transcript;
+            });
+        } finally {
+            for (ProcessJoueur[] table : idle) {
+                destroy(table);
+            }
+        }
+    }
+
+    // Processus JoueurExterne avec le classpath de l'arbitre. stderr est ignoré : les
+    // traces de l'IA finiraient par remplir le tube et bloquer le joueur.
+    private static ProcessJoueur[] startTable(long moveTimeMs) throws IOException {
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classpath = System.getProperty("java.class.path");
+        ProcessJoueur[] table = new ProcessJoueur[2];
+        for (int i = 0; i < 2; i++) {
+            String nom = i == 0 ? "A" : "B";
+            Process process = new ProcessBuilder(javaBin, "-Dmove.time=" + moveTimeMs, "-cp", classpath,
+                    "JoueurExterne", "Joueur" + nom)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            table[i] = new ProcessJoueur(nom, process);
+        }
+        return table;
+    }
+
+    // Faux si un joueur ne répond pas READY, ou ne peut plus rien recevoir (processus mort)
+    private static boolean newGame(ProcessJoueur[] table) {
+        try {
+            return table[0].newGame(NEWGAME_TIMEOUT_MS) && table[1].newGame(NEWGAME_TIMEOUT_MS);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void destroy(ProcessJoueur[] table) {
+        table[0].destroy();
+        table[1].destroy();
+    }
+
+    // Joue games parties (game joue une partie et renvoie ses lignes, RESULT en dernier)
+    // sur threads threads, puis affiche les résultats et le bilan
+    private static void runGames(int games, int threads, Callable<List<String>> game)
+            throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int g = 0; g < games; g++) {
+            futures.add(pool.submit(game));
+        }
+
+        int winsA = 0, winsB = 0, draws = 0, timeouts = 0, invalid = 0, limit = 0, failed = 0;
+        try {
+            for (int g = 0; g < games; g++) {
+                List<String> transcript = futures.get(g).get();
+                String result = transcript.get(transcript.size() - 1);
+                String[] parts = result.split(" ");
+                if (parts[1].equals("FAILED")) {
+                    // Joueur perdu en cours de partie (mode pool) : pas de score
+                    transcript.subList(0, transcript.size() - 1).forEach(System.out::println);
+                    failed++;
+                    System.out.println("Game " + (g + 1) + ": " + result);
+                    continue;
+                }
+                int s1 = Integer.parseInt(parts[2]);
+                int s2 = Integer.parseInt(parts[3]);
+                if (parts[1].equals("TIMEOUT") || parts[1].equals("INVALID")) {
+                    // Partie anormale : on affiche ses coups pour pouvoir la rejouer
+                    transcript.subList(0, transcript.size() - 1).forEach(System.out::println);
+                    if (parts[1].equals("TIMEOUT")) {
+                        timeouts++;
+                    } else {
+                        invalid++;
+                    }
+                } else {
+                    if (parts[1].equals("LIMIT")) {
+                        limit++;
+                    }
+                    if (s1 > s2) {
+                        winsA++;
+                    } else if (s2 > s1) {
+                        winsB++;
+                    } else {
+                        draws++;
+                    }
+                }
+                System.out.println("Game " + (g + 1) + ": " + result);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games in %.0f s (%.0f games/hour): A %d, B %d, draws %d, LIMIT %d, TIMEOUT %d, INVALID %d, FAILED %d%n",
+                games, seconds, games * 3600.0 / seconds, winsA, winsB, draws, limit, timeouts, invalid, failed);
+    }
+
+    // Un joueur vu de l'arbitre : une ligne envoyée, une ligne de réponse attendue
+    abstract static class Joueur {
+        final String nom;
+
+        Joueur(String nom) {
+            this.nom = nom;
+        }
+
+        abstract void receive(String msg) throws IOException;
+
+        // Réponse du joueur, ou null s'il n'a pas répondu dans le temps imparti
+        abstract String response(long timeoutMillis) throws IOException;
+
+        abstract void destroy();
+    }
+
+    static class ProcessJoueur extends Joueur {
         Process process;
         BufferedWriter in;
         BufferedReader out;
         ExecutorService executor = Executors.newSingleThreadExecutor();
 
-        Joueur(String nom, Process p) {
-            this.nom = nom;
+        ProcessJoueur(String nom, Process p) {
+            super(nom);
             this.process = p;
             this.in = new BufferedWriter(new OutputStreamWriter(p.getOutputStream()));
             this.out = new BufferedReader(new InputStreamReader(p.getInputStream()));
@@ -119,10 +341,10 @@ public class Arbitre {
             in.newLine();
             in.flush();
         }
-        String response(int timeoutSeconds) throws IOException {
+        String response(long timeoutMillis) throws IOException {
             Future<String> future = executor.submit(() -> out.readLine());
             try {
-                return future.get(timeoutSeconds, TimeUnit.SECONDS);
+                return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
             } catch (TimeoutException e) {
                 future.cancel(true);
                 return null;
@@ -131,9 +353,56 @@ public class Arbitre {
             }
         }
 
+        // Nouvelle partie (NEWGAME) ; les lignes reçues avant READY sont ignorées
+        boolean newGame(long timeoutMillis) throws IOException {
+            receive("NEWGAME " + nom);
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            String line;
+            while ((line = response(Math.max(1L, deadline - System.currentTimeMillis()))) != null) {
+                if (line.trim().equals("READY")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         void destroy() {
             executor.shutdownNow();
             process.destroy();
         }
     }
+
+    // JoueurExterne dans la JVM de l'arbitre, avec le même protocole : les lignes
+    // passent par une file au lieu des tubes, et chaque ligne reçue est traitée sur
+    // le thread du joueur comme le ferait sa boucle de lecture de stdin.
+    // L'évaluateur et le livre sont partagés par tous les joueurs de la JVM.
+    static class LocalJoueur extends Joueur {
+        private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        private final ExecutorService input = Executors.newSingleThreadExecutor();
+        private final JoueurExterne joueur;
+
+        LocalJoueur(String nom, String playerName, long moveTimeMs, Evaluator evaluator, OpeningBook book) {
+            super(nom);
+            this.joueur = new JoueurExterne(playerName, moveTimeMs, false, evaluator, book, lines::add);
+        }
+
+        void receive(String msg) {
+            long receivedNanos = System.nanoTime();
+            input.submit(() -> joueur.onLine(msg, receivedNanos));
+        }
+
+        String response(long timeoutMillis) {
+            try {
+                return lines.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        void destroy() {
+            input.shutdownNow();
+            joueur.close();
+        }
+    }
 }
@@ -1,8 +1,25 @@
+import controllers.CachedEvaluator;
+import controllers.CompiledPhaseEvaluator;
+import controllers.Evaluator;
 import controllers.MinimaxPlayerController;
+import controllers.OpeningBook;
 import controllers.PhaseEvaluator;
 import controllers.RuleController;
+import controllers.SearchHandle;
+import controllers.TimeManager;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import models.Board;
 import models.MoveCommand;
 import models.MoveFactory;
@@ -10,25 +27,81 @@ import models.Player;
 
 public class JoueurExterne {
     private final String name;
-    private final int playerIndex; // 0 pour premier joueur (trous impairs), 1 pour second (trous pairs)
+    private int playerIndex; // 0 pour premier joueur (trous impairs), 1 pour second (trous pairs)
 
-    private final Board board;
-    private final Player[] players;
-    private final RuleController ruleController;
-    private final MoveFactory moveFactory;
-    private final MinimaxPlayerController ai;
+    // État de la partie en cours, recréé par NEWGAME
+    private Board board;
+    private Player[] players;
+    private MoveFactory moveFactory;
+    private MinimaxPlayerController ai;
+    private final RuleController ruleController = new RuleController();
 
-    JoueurExterne(String name) {
+    // Conservés d'une partie à l'autre : évaluateur (et son cache), livre, réglages du temps
+    private final Evaluator evaluator;
+    private final OpeningBook book;
+    private final boolean verbose;
+    private final long moveTimeMs;
+    private final long safetyMarginMs;
+
+    // La recherche tourne sur searchThread ; le watchdog écrit le meilleur coup connu
+    // à watchdogNanos après la réception du coup adverse si elle n'a pas encore fini.
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(daemon("search"));
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(daemon("watchdog"));
+    private final long watchdogNanos;
+    // Destination des coups : stdout, ou l'arbitre en mode local (Arbitre.LocalJoueur)
+    private final Consumer<String> out;
+
+    /**
+     * @param moveTimeMs temps accordé par l'arbitre pour chaque coup
+     * @param verbose    traces de l'IA sur stderr
+     * @param evaluator  évaluateur, partageable entre joueurs (voir defaultEvaluator)
+     * @param book       livre d'ouverture, partageable lui aussi (null = pas de livre)
+     * @param out        reçoit chaque coup joué (une ligne du protocole)
+     */
+    JoueurExterne(String name, long moveTimeMs, boolean verbose, Evaluator evaluator, OpeningBook book,
+                  Consumer<String> out) {
         this.name = name;
+        this.out = out;
+        this.verbose = verbose;
+        this.moveTimeMs = moveTimeMs;
+        this.evaluator = evaluator;
+        this.book = book;
+
+        // Temps par coup géré par TimeManager : l'arbitre coupe à 3 s, on garde une
+        // marge pour le démarrage de la JVM, le GC et les échanges sur les tubes
+        // (600 ms, au plus un cinquième du temps s'il est plus court).
+        // -Dmove.time=... et -Dmove.margin=... (ms) pour un autre arbitre.
+        this.safetyMarginMs = Long.getLong("move.margin", Math.min(600L, moveTimeMs / 5));
+        // Filet de sécurité si la recherche dépasse (pause GC, machine chargée) :
+        // -Dmove.watchdog=... (ms avant la fin du temps), plus petit que move.margin.
+        long watchdogMarginMs = Long.getLong("move.watchdog", Math.min(300L, moveTimeMs / 10));
+        this.watchdogNanos = Math.max(1L, moveTimeMs - watchdogMarginMs) * 1_000_000L;
+
         // Déduction simple de l'index du joueur à partir du nom passé par l'arbitre
         // JoueurA -> index 0, JoueurB -> index 1, défaut = 0
-        int idx;
-        String lower = name.toLowerCase();
-        if (lower.endsWith("b")) {
-            idx = 1;
-        } else {
-            idx = 0;
-        }
+        newGame(sideIndex(name));
+    }
+
+    // IA Minimax avec évaluateur par phases BALANCED (version compilée, mêmes scores),
+    // derrière un cache d'évaluation. Sans état hors du cache, qui est sûr entre
+    // threads : les joueurs d'une même JVM (Arbitre local) en partagent un seul.
+    static Evaluator defaultEvaluator() {
+        return new CachedEvaluator(new CompiledPhaseEvaluator(PhaseEvaluator.PhaseProfile.BALANCED));
+    }
+
+    // Livre d'ouverture optionnel (construit par OpeningBookBuilder), lu dans le
+    // répertoire courant sauf si -Dopening.book=... est fourni ; null s'il n'existe pas.
+    static OpeningBook defaultBook() {
+        return OpeningBook.openIfExists(Paths.get(System.getProperty("opening.book", "opening.book")));
+    }
+
+    // "A" / "JoueurA" -> 0, "B" / "JoueurB" -> 1, défaut = 0
+    private static int sideIndex(String side) {
+        return side.toLowerCase().endsWith("b") ? 1 : 0;
+    }
+
+    // Nouvelle partie depuis la position initiale, dans le camp idx
+    private void newGame(int idx) {
         this.playerIndex = idx;
 
         // Initialisation de l'état de jeu local (identique pour les deux joueurs)
@@ -37,19 +110,17 @@ public class JoueurExterne {
         Player p2 = new Player(1, "Player 2");
         this.players = new Player[] { p1, p2 };
 
-        this.ruleController = new RuleController();
         // MoveFactory en mode silencieux pour ne pas polluer stdout :
         // le joueur externe ne doit imprimer que le coup (ex: "13B").
         this.moveFactory = new MoveFactory(board, ruleController, players, true);
 
-        // IA Minimax avec évaluateur par phases BALANCED
+        // IA neuve (killer moves, history, cache du solveur, TimeManager)
         int depthStrong = 10;
-        long timeLimitMsStrong = 2000L; // 2 secondes max par coup (l'arbitre a 3s de timeout)
-        this.ai = new MinimaxPlayerController(
-            new PhaseEvaluator(PhaseEvaluator.PhaseProfile.BALANCED),
-            depthStrong,
-            timeLimitMsStrong
-        );
+        this.ai = new MinimaxPlayerController(evaluator, depthStrong, 0L, verbose);
+        this.ai.setTimeManager(new TimeManager(moveTimeMs, safetyMarginMs));
+        if (book != null) {
+            this.ai.setOpeningBook(book);
+        }
     }
 
     private int opponentIndex() {
@@ -64,63 +135,117 @@ public class JoueurExterne {
         return cmd.execute();
     }
 
-    private String computeBestMove() {
-        return ai.chooseMove(board, players, playerIndex);
+    /**
+     * Traite une ligne de l'arbitre (START, END, NEWGAME ou coup adverse) ;
+     * receivedNanos = instant de sa réception. Renvoie false après END.
+     *
+     * "NEWGAME A" (ou B) remet la partie à zéro dans ce camp, sans quitter le
+     * processus, et répond READY : l'arbitre ignore toute ligne reçue avant ce
+     * READY (coup tardif de la partie précédente).
+     */
+    boolean onLine(String etat, long receivedNanos) throws InterruptedException {
+        etat = etat.trim();
+        if (etat.isEmpty()) {
+            return true;
+        }
+
+        if ("START".equalsIgnoreCase(etat)) {
+            // Premier coup de la partie pour ce joueur
+            playMove(receivedNanos);
+        } else if ("END".equalsIgnoreCase(etat)) {
+            // Optionnel : si un arbitre décidait d'envoyer END, on termine proprement
+            return false;
+        } else if (etat.toUpperCase().startsWith("NEWGAME")) {
+            String[] parts = etat.split("\\s+");
+            newGame(parts.length > 1 ? sideIndex(parts[1]) : sideIndex(name));
+            out.accept("READY");
+        } else {
+            // etat contient le dernier coup joué (par l'adversaire). S'il est invalide
+            // du point de vue local, on répond quand même un coup.
+            applyMoveForPlayer(etat, opponentIndex());
+            playMove(receivedNanos);
+        }
+        return true;
+    }
+
+    /** Arrête les threads de recherche et du watchdog. */
+    void close() {
+        watchdog.shutdownNow();
+        searchThread.shutdownNow();
+    }
+
+    /**
+     * Cherche notre coup, l'écrit sur out exactement une fois et l'applique
+     * localement ; receivedNanos = instant de réception de la ligne de l'arbitre.
+     *
+     * Le coup écrit est celui de la recherche si elle finit à temps, sinon le
+     * meilleur coup de sa dernière itération terminée (ou le premier coup légal),
+     * écrit par le watchdog qui arrête alors la recherche. La recherche porte sur
+     * une copie du plateau ; on attend tout de même sa fin avant la suivante.
+     */
+    private void playMove(long receivedNanos) throws InterruptedException {
+        List<String> legal = ruleController.legalMoves(board, players[playerIndex]);
+        String fallback = legal.isEmpty() ? "" : legal.get(0);
+        AtomicReference<String> emitted = new AtomicReference<>();
+
+        SearchHandle search = ai.startSearch(board, players, playerIndex, searchThread, null);
+        long delay = receivedNanos + watchdogNanos - System.nanoTime();
+        ScheduledFuture<?> timer = watchdog.schedule(() -> {
+            String best = search.bestMoveSoFar();
+            if (emit(emitted, legal.contains(best) ? best : fallback)) {
+                search.stop();
+            }
+        }, Math.max(0L, delay), TimeUnit.NANOSECONDS);
+
+        String coup;
+        try {
+            coup = search.result().get();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            coup = null;
+        }
+        timer.cancel(false);
+        emit(emitted, coup != null && legal.contains(coup) ? coup : fallback);
+
+        String played = emitted.get();
+        if (!played.isEmpty()) {
+            applyMoveForPlayer(played, playerIndex);
+        }
+    }
+
+    // Le premier appelant écrit le coup ; true s'il l'a écrit
+    private boolean emit(AtomicReference<String> emitted, String coup) {
+        if (!emitted.compareAndSet(null, coup)) {
+            return false;
+        }
+        out.accept(coup);
+        return true;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     public static void main(String[] args) throws Exception {
         String playerName = (args.length > 0) ? args[0] : "Joueur";
-        JoueurExterne joueur = new JoueurExterne(playerName);
+        // ATTENTION : NE PAS ÉCRIRE D'AUTRES TRACES SUR STDOUT QUE LE COUP
+        // (le coup est écrit par playMove, éventuellement depuis le watchdog)
+        JoueurExterne joueur = new JoueurExterne(playerName, Long.getLong("move.time", 3000L), true,
+                defaultEvaluator(), defaultBook(), coup -> {
+            System.out.println(coup);
+            System.out.flush();
+        });
 
         BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
         String etat;
-
         while ((etat = in.readLine()) != null) {
-            // ATTENTION : NE PAS ÉCRIRE D'AUTRES TRACES SUR STDOUT QUE LE COUP
-            etat = etat.trim();
-            if (etat.isEmpty()) {
-                continue;
-            }
-
-            String coup;
-
-            if ("START".equalsIgnoreCase(etat)) {
-                // Premier coup de la partie pour ce joueur
-                coup = joueur.computeBestMove();
-                if (coup == null) {
-                    // Aucun coup trouvé : on envoie un texte vide (l'arbitre gérera)
-                    coup = "";
-                } else {
-                    // On applique localement notre propre coup
-                    joueur.applyMoveForPlayer(coup, joueur.playerIndex);
-                }
-            } else if ("END".equalsIgnoreCase(etat)) {
-                // Optionnel : si un arbitre décidait d'envoyer END, on termine proprement
+            if (!joueur.onLine(etat, System.nanoTime())) {
                 break;
-            } else {
-                // etat contient le dernier coup joué (par l'adversaire)
-                boolean ok = joueur.applyMoveForPlayer(etat, joueur.opponentIndex());
-                if (!ok) {
-                    // Mouvement adverse invalide du point de vue local : on répond un coup quelconque
-                    coup = joueur.computeBestMove();
-                    if (coup == null) {
-                        coup = "";
-                    } else {
-                        joueur.applyMoveForPlayer(coup, joueur.playerIndex);
-                    }
-                } else {
-                    // Après avoir intégré le coup adverse, on joue le nôtre
-                    coup = joueur.computeBestMove();
-                    if (coup == null) {
-                        coup = "";
-                    } else {
-                        joueur.applyMoveForPlayer(coup, joueur.playerIndex);
-                    }
-                }
             }
-
-            System.out.println(coup);
-            System.out.flush();
         }
     }
 }
@@ -0,0 +1,75 @@
+package controllers;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * BoardKernels sur l'API Vector : les 16 trous tiennent dans un vecteur de 16 int
+ * (AVX-512) ou dans 2 / 4 vecteurs plus courts selon le matériel.
+ *
+ * Compilation et exécution avec --add-modules jdk.incubator.vector ; ne jamais
+ * instancier directement, passer par BoardKernels.best().
+ */
+public final class VectorBoardKernels implements BoardKernels {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    // Chaque bloc commence sur un indice pair : le même masque de parité sert partout
+    private final VectorMask<Integer>[] parityMasks;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public VectorBoardKernels() {
+        if (LANES < 4 || NUM_HOLES % LANES != 0) {
+            throw new IllegalStateException("Unsupported vector species: " + SPECIES);
+        }
+        parityMasks = new VectorMask[2];
+        parityMasks[0] = VectorMask.fromLong(SPECIES, 0x5555_5555_5555_5555L);
+        parityMasks[1] = VectorMask.fromLong(SPECIES, 0xAAAA_AAAA_AAAA_AAAAL);
+    }
+
+    @Override
+    public int sideSum(int[] values, int parity) {
+        VectorMask<Integer> side = parityMasks[parity];
+        int sum = 0;
+        for (int i = 0; i < NUM_HOLES; i += LANES) {
+            sum += IntVector.fromArray(SPECIES, values, i).reduceLanes(VectorOperators.ADD, side);
+        }
+        return sum;
+    }
+
+    @Override
+    public int captureMask(int[] totals) {
+        int mask = 0;
+        for (int i = 0; i < NUM_HOLES; i += LANES) {
+            IntVector v = IntVector.fromArray(SPECIES, totals, i);
+            VectorMask<Integer> capturable = v.compare(VectorOperators.EQ, 2)
+                    .or(v.compare(VectorOperators.EQ, 3));
+            mask |= (int) capturable.toLong() << i;
+        }
+        return mask;
+    }
+
+    @Override
+    public int mobility(int[] red, int[] blue, int[] transparent, int parity) {
+        VectorMask<Integer> side = parityMasks[parity];
+        int count = 0;
+        for (int i = 0; i < NUM_HOLES; i += LANES) {
+            IntVector r = IntVector.fromArray(SPECIES, red, i);
+            IntVector b = IntVector.fromArray(SPECIES, blue, i);
+            IntVector t = IntVector.fromArray(SPECIES, transparent, i);
+            count += r.compare(VectorOperators.GT, 0).and(side).trueCount();
+            count += b.compare(VectorOperators.GT, 0).and(side).trueCount();
+            count += t.add(r).compare(VectorOperators.GT, 0).and(side).trueCount();
+            count += t.add(b).compare(VectorOperators.GT, 0).and(side).trueCount();
+        }
+        return count;
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + LANES + " x int)";
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Configuration d'une IA de tournoi (voir AITournament).
+ *
+ * nodeLimit > 0 borne la recherche en nombre de nœuds par coup
+ * (MinimaxPlayerController.setNodeLimit) ; avec timeLimitMs = 0, la partie ne
+ * dépend alors plus de la charge de la machine.
+ *
+ * toLine / parse servent à l'envoyer à un MatchWorker : champs séparés par des
+ * virgules, doubles écrits par Double.toString (relus à l'identique). Le nom ne
+ * doit donc contenir ni virgule ni espace.
+ */
+record AIConfig(
+        String name,
+        int depth,
+        long timeLimitMs,
+        double capturedWeight,
+        double boardWeight,
+        double scale,
+        double famineWeight,
+        boolean phased,
+        long nodeLimit
+) {
+
+    AIConfig(String name, int depth, long timeLimitMs, double capturedWeight, double boardWeight,
+             double scale, double famineWeight, boolean phased) {
+        this(name, depth, timeLimitMs, capturedWeight, boardWeight, scale, famineWeight, phased, 0L);
+    }
+
+    /** Même configuration, limitée à nodeLimit nœuds par coup et sans limite de temps. */
+    AIConfig withNodeLimit(long nodeLimit) {
+        return new AIConfig(name, depth, 0L, capturedWeight, boardWeight, scale, famineWeight, phased, nodeLimit);
+    }
+
+    String toLine() {
+        if (name.contains(",") || name.contains(" ")) {
+            throw new IllegalArgumentException("Config name cannot contain ',' or ' ': " + name);
+        }
+        return String.join(",", name, Integer.toString(depth), Long.toString(timeLimitMs),
+                Double.toString(capturedWeight), Double.toString(boardWeight), Double.toString(scale),
+                Double.toString(famineWeight), Boolean.toString(phased), Long.toString(nodeLimit));
+    }
+
+    static AIConfig parse(String line) {
+        String[] f = line.split(",");
+        if (f.length != 9) {
+            throw new IllegalArgumentException("Invalid config: " + line);
+        }
+        return new AIConfig(f[0], Integer.parseInt(f[1]), Long.parseLong(f[2]),
+                Double.parseDouble(f[3]), Double.parseDouble(f[4]), Double.parseDouble(f[5]),
+                Double.parseDouble(f[6]), Boolean.parseBoolean(f[7]), Long.parseLong(f[8]));
+    }
+}
@@ -1,9 +1,28 @@
+import controllers.CompiledPhaseEvaluator;
 import controllers.Evaluator;
+import controllers.EvaluatorFactory;
 import controllers.MinimaxPlayerController;
 import controllers.PhaseEvaluator;
 import controllers.PlayerController;
 import controllers.RuleController;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
 import models.Board;
 import models.MoveCommand;
 import models.MoveFactory;
@@ -15,16 +34,9 @@ import models.Player;
  */
 public class AITournament {
 
-    private record AIConfig(
-            String name,
-            int depth,
-            long timeLimitMs,
-            double capturedWeight,
-            double boardWeight,
-            double scale,
-            double famineWeight,
-            boolean phased
-    ) {}
+    // Hashs des parties jouées, pour repérer les doublons
+    private static final Set<Long> PLAYED_GAMES = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger DUPLICATES = new AtomicInteger();
 
     public static void main(String[] args) {
     // Variantes d'IA à tester :
@@ -108,65 +120,303 @@ public class AITournament {
             true
         );
 
+        // Profil appris (TDTrainer / TexelTuner) : le nom est le fichier de profil
+        AIConfig cfgPhaseTrained = new AIConfig(
+            "td.properties",
+            5,
+            800,
+            1.0, 0.7, 0.5,
+            0.3,
+            true
+        );
+
     // Choisir ici quelles IA s'affrontent dans le tournoi :
     // Tu peux modifier librement cfgA et cfgB pour tester n'importe quelle paire.
     AIConfig cfgA = cfgAdvanced;
     AIConfig cfgB = cfgPhaseBalanced;
 
-        int games = 20; // nombre de parties du tournoi
-        runTournament(cfgA, cfgB, games);
-    }
+        // Toutes les configurations, pour les modes ligue et gauntlet
+        List<AIConfig> allConfigs = new ArrayList<>(List.of(
+                cfgBalanced, cfgBalancedCapture, cfgBalancedFamine, cfgAdvanced,
+                cfgPhaseBalanced, cfgPhaseAggressive, cfgPhaseSafeOpening, cfgPhaseUltimate,
+                cfgPhaseTrained));
+
+        // -Dtournament.nodes=N : toutes les IA limitées à N nœuds par coup au lieu du
+        // temps, pour des parties reproductibles quelle que soit la charge
+        long nodeLimit = Long.getLong("tournament.nodes", 0L);
+        if (nodeLimit > 0) {
+            allConfigs.replaceAll(c -> c.withNodeLimit(nodeLimit));
+            cfgA = cfgA.withNodeLimit(nodeLimit);
+            cfgB = cfgB.withNodeLimit(nodeLimit);
+        }
+
+        // Mode ligue : java AITournament roundrobin [tours] [threads] [graine] [résultats] [pliesOuverture]
+        // Mode gauntlet : java AITournament gauntlet <champion> [tours] [threads] [graine] [résultats] [pliesOuverture]
+        if (args.length > 0 && (args[0].equalsIgnoreCase("roundrobin") || args[0].equalsIgnoreCase("gauntlet"))) {
+            boolean gauntlet = args[0].equalsIgnoreCase("gauntlet");
+            int a = gauntlet ? 2 : 1;
+            int rounds = args.length > a ? Integer.parseInt(args[a]) : 2;
+            int threads = args.length > a + 1 ? Integer.parseInt(args[a + 1]) : Runtime.getRuntime().availableProcessors();
+            long seed = args.length > a + 2 ? Long.parseLong(args[a + 2]) : 1L;
+            String resultsFile = args.length > a + 3 ? args[a + 3] : "results.txt";
+            LongFunction<List<String>> openings = OpeningSuite.source(args.length > a + 4 ? args[a + 4] : "4");
+
+            // Un profil appris absent ne peut pas jouer : on l'écarte
+            allConfigs.removeIf(c -> {
+                boolean missing = c.name().endsWith(".properties") && !Files.exists(Paths.get(c.name()));
+                if (missing) {
+                    System.out.println("Skipping " + c.name() + " (file not found)");
+                }
+                return missing;
+            });
+
+            try (MatchResults results = MatchResults.open(Paths.get(resultsFile))) {
+                League league = gauntlet
+                        ? League.gauntlet(allConfigs, args[1], rounds, seed, results)
+                        : League.roundRobin(allConfigs, rounds, seed, results);
+                runLeague(league, threads, openings);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot use results file " + resultsFile, e);
+            }
+            return;
+        }
+
+        // Mode distribué : java AITournament serve <port> <roundrobin|champion> [tours] [graine] [résultats]
+        //                  [ouvertures] [workersLocaux] [threadsParWorker]
+        if (args.length > 2 && args[0].equalsIgnoreCase("serve")) {
+            int port = Integer.parseInt(args[1]);
+            int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : 1L;
+            String resultsFile = args.length > 5 ? args[5] : "results.txt";
+            String openings = args.length > 6 ? args[6] : "4";
+            int localWorkers = args.length > 7 ? Integer.parseInt(args[7]) : 0;
+            int threadsPerWorker = args.length > 8 ? Integer.parseInt(args[8]) : 1;
+
+            allConfigs.removeIf(c -> c.name().endsWith(".properties") && !Files.exists(Paths.get(c.name())));
+            try (MatchResults results = MatchResults.open(Paths.get(resultsFile))) {
+                League league = args[2].equalsIgnoreCase("roundrobin")
+                        ? League.roundRobin(allConfigs, rounds, seed, results)
+                        : League.gauntlet(allConfigs, args[2], rounds, seed, results);
+                new MatchCoordinator(league, openings).run(port, localWorkers, threadsPerWorker);
+                System.out.println("====================================");
+                league.printRatings();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Coordinator failed", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
 
-    private static void runTournament(AIConfig cfgA, AIConfig cfgB, int games) {
-        int winsA = 0;
-        int winsB = 0;
-        int draws = 0;
+        // Mode SPRT : java AITournament sprt elo0 elo1 alpha beta [threads] [graine] [pairesMax] [pliesOuverture]
+        if (args.length > 0 && args[0].equalsIgnoreCase("sprt")) {
+            Sprt sprt = new Sprt(Double.parseDouble(args[1]), Double.parseDouble(args[2]),
+                                 Double.parseDouble(args[3]), Double.parseDouble(args[4]));
+            int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+            long seed = args.length > 6 ? Long.parseLong(args[6]) : 1L;
+            int maxPairs = args.length > 7 ? Integer.parseInt(args[7]) : 20_000;
+            LongFunction<List<String>> openings = OpeningSuite.source(args.length > 8 ? args[8] : "4");
+            runSprt(cfgA, cfgB, sprt, threads, seed, maxPairs, openings);
+            return;
+        }
 
-        Random rng = new Random(1L);
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20; // nombre de parties du tournoi
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+        LongFunction<List<String>> openings = OpeningSuite.source(args.length > 3 ? args[3] : "0");
+        runTournament(cfgA, cfgB, games, threads, seed, openings);
+    }
 
+    /**
+     * Joue les parties en parallèle sur un pool de threads. Chaque partie a ses
+     * propres contrôleurs, évaluateurs et plateau : rien n'est partagé entre parties
+     * à part les compteurs de résultats. La partie g utilise la graine seed + g,
+     * ce qui la rend reproductible quel que soit l'ordre d'exécution (à condition
+     * de ne pas limiter les IA par le temps, voir AIConfig.timeLimitMs). Les
+     * parties 2k et 2k + 1 partent de la même ouverture, couleurs inversées.
+     */
+    private static void runTournament(AIConfig cfgA, AIConfig cfgB, int games, int threads, long seed,
+                                      LongFunction<List<String>> openings) {
+        AtomicInteger winsA = new AtomicInteger();
+        AtomicInteger winsB = new AtomicInteger();
+        AtomicInteger draws = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
         for (int g = 0; g < games; g++) {
+            int gameNumber = g + 1;
             // On alterne qui commence pour être plus juste
             boolean aStarts = (g % 2 == 0);
+            long gameSeed = seed + g;
+            long openingKey = seed + g / 2;
+
+            futures.add(pool.submit(() -> {
+                int result = playSingleGame(cfgA, cfgB, aStarts, gameSeed, openings.apply(openingKey));
+                if (result == 0) {
+                    winsA.incrementAndGet();
+                } else if (result == 1) {
+                    winsB.incrementAndGet();
+                } else {
+                    draws.incrementAndGet();
+                }
+                System.out.printf("Game %d result: %s%n", gameNumber,
+                        result == 0 ? cfgA.name() : (result == 1 ? cfgB.name() : "Draw"));
+            }));
+        }
+        pool.shutdown();
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pool.shutdownNow();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Game failed", e.getCause());
+            }
+        }
 
-            int result = playSingleGame(cfgA, cfgB, aStarts, rng);
-            if (result == 0) {
-                winsA++;
-            } else if (result == 1) {
-                winsB++;
-            } else {
-                draws++;
+        System.out.println("====================================");
+        System.out.println("Tournament summary:");
+        System.out.printf("%s wins: %d%n", cfgA.name(), winsA.get());
+        System.out.printf("%s wins: %d%n", cfgB.name(), winsB.get());
+        System.out.printf("Draws: %d%n", draws.get());
+        System.out.printf("Duplicate games: %d%n", DUPLICATES.get());
+    }
+
+    /**
+     * Modes ligue et gauntlet : les parties absentes du fichier de résultats sont
+     * jouées en parallèle et ajoutées au fichier dès qu'elles se terminent. Le
+     * classement Elo porte sur toutes les parties de la ligue.
+     */
+    private static void runLeague(League league, int threads, LongFunction<List<String>> openings) {
+        List<League.Game> pending = league.pending();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (League.Game game : pending) {
+            futures.add(pool.submit(() -> {
+                double scoreA = scoreOfA(playSingleGame(league.config(game.a()), league.config(game.b()),
+                        game.aStarts(), game.seed(), openings.apply(game.seed())));
+                try {
+                    league.record(game, scoreA);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        System.out.printf("%d games to play, %d already in results file%n",
+                pending.size(), league.totalGames() - pending.size());
+        pool.shutdown();
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pool.shutdownNow();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Game failed", e.getCause());
             }
+        }
 
-            System.out.printf("Game %d result: %s%n", g + 1,
-                    result == 0 ? cfgA.name() : (result == 1 ? cfgB.name() : "Draw"));
+        System.out.println("====================================");
+        System.out.printf("Duplicate games this run: %d%n", DUPLICATES.get());
+        league.printRatings();
+    }
+
+    /**
+     * Mode SPRT : des paires de parties (même ouverture, couleurs inversées) sont jouées sur "threads" threads jusqu'à ce que le test conclue
+     * ou que maxPairs paires soient jouées. La paire p utilise la graine seed + p.
+     */
+    private static void runSprt(AIConfig cfgA, AIConfig cfgB, Sprt sprt, int threads, long seed,
+                                int maxPairs, LongFunction<List<String>> openings) {
+        AtomicInteger nextPair = new AtomicInteger();
+        AtomicBoolean stop = new AtomicBoolean();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                int p;
+                while (!stop.get() && (p = nextPair.getAndIncrement()) < maxPairs) {
+                    long pairSeed = seed + p;
+                    List<String> opening = openings.apply(pairSeed);
+                    double first = scoreOfA(playSingleGame(cfgA, cfgB, true, pairSeed, opening));
+                    double second = scoreOfA(playSingleGame(cfgA, cfgB, false, pairSeed, opening));
+                    sprt.addPair(first, second);
+                    System.out.println(sprt.status());
+                    if (sprt.decision() != Sprt.Decision.CONTINUE) {
+                        stop.set(true);
+                    }
+                }
+            }));
+        }
+        pool.shutdown();
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pool.shutdownNow();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Game failed", e.getCause());
+            }
         }
 
         System.out.println("====================================");
-        System.out.println("Tournament summary:");
-        System.out.printf("%s wins: %d%n", cfgA.name(), winsA);
-        System.out.printf("%s wins: %d%n", cfgB.name(), winsB);
-        System.out.printf("Draws: %d%n", draws);
+        System.out.printf("SPRT %s vs %s: %s%n", cfgA.name(), cfgB.name(), sprt.decision());
+        System.out.println(sprt.status());
+        System.out.printf("Duplicate games: %d%n", DUPLICATES.get());
+    }
+
+    static double scoreOfA(int result) {
+        return result == 0 ? 1.0 : (result == 1 ? 0.0 : 0.5);
+    }
+
+    // Compte les parties identiques coup pour coup (hash de la suite de coups)
+    private static void noteGame(List<String> moves) {
+        if (!PLAYED_GAMES.add(OpeningSuite.sequenceHash(moves))) {
+            DUPLICATES.incrementAndGet();
+        }
     }
 
     /**
-     * Joue une partie IA vs IA avec deux configurations données.
+     * Joue une partie IA vs IA avec deux configurations données, après les coups
+     * d'ouverture imposés (joués alternativement à partir du joueur 1).
      * @return 0 si cfgA gagne, 1 si cfgB gagne, -1 si nul.
      */
-    private static int playSingleGame(AIConfig cfgA, AIConfig cfgB, boolean aStarts, Random rng) {
+    static int playSingleGame(AIConfig cfgA, AIConfig cfgB, boolean aStarts, long seed, List<String> opening) {
+        List<String> moves = new ArrayList<>(opening);
+        int result = playGame(cfgA, cfgB, aStarts, seed, opening, moves);
+        noteGame(moves);
+        return result;
+    }
+
+    // Boucle de jeu de playSingleGame ; les coups joués sont ajoutés à "moves"
+    private static int playGame(AIConfig cfgA, AIConfig cfgB, boolean aStarts, long seed,
+                                List<String> opening, List<String> moves) {
         Board board = new Board();
         Player player1 = new Player(0, "Player 1");
         Player player2 = new Player(1, "Player 2");
         Player[] players = { player1, player2 };
 
         RuleController ruleController = new RuleController();
-        MoveFactory moveFactory = new MoveFactory(board, ruleController, players);
+        MoveFactory moveFactory = new MoveFactory(board, ruleController, players, true);
 
         // Construire les deux IA avec leurs évaluateurs propres
+        // (silencieuses : plusieurs parties s'affichent en même temps)
         Evaluator evalA = createEvaluator(cfgA);
         Evaluator evalB = createEvaluator(cfgB);
 
-        PlayerController aiA = new MinimaxPlayerController(evalA, cfgA.depth(), cfgA.timeLimitMs());
-        PlayerController aiB = new MinimaxPlayerController(evalB, cfgB.depth(), cfgB.timeLimitMs());
+        MinimaxPlayerController aiA = new MinimaxPlayerController(evalA, cfgA.depth(), cfgA.timeLimitMs(), false);
+        MinimaxPlayerController aiB = new MinimaxPlayerController(evalB, cfgB.depth(), cfgB.timeLimitMs(), false);
+        aiA.setSeed(seed);
+        aiB.setSeed(~seed);
+        aiA.setNodeLimit(cfgA.nodeLimit());
+        aiB.setNodeLimit(cfgB.nodeLimit());
+        aiA.setHistoryScale(historyScale(cfgA));
+        aiB.setHistoryScale(historyScale(cfgB));
 
         PlayerController[] controllers = new PlayerController[2];
         if (aStarts) {
@@ -178,6 +428,14 @@ public class AITournament {
         }
 
         int currentPlayerIndex = 0;
+        for (String move : opening) {
+            MoveCommand command = moveFactory.createMove(move, players[currentPlayerIndex]);
+            if (command == null || !command.execute()) {
+                throw new IllegalArgumentException("Illegal opening move: " + move);
+            }
+            currentPlayerIndex = 1 - currentPlayerIndex;
+        }
+
         int maxMoves = 400; // garde-fou : 400 coups max (200 par joueur)
         int movesPlayed = 0;
 
@@ -216,10 +474,14 @@ public class AITournament {
                 // coup illégal -> défaite
                 return aStarts ^ (currentPlayerIndex == 0) ? 0 : 1;
             }
+            moves.add(moveText);
 
             currentPlayerIndex = 1 - currentPlayerIndex;
         }
 
+        if (!ruleController.isGameOver(board, players)) {
+            return -1; // arrêt au garde-fou : nul
+        }
         int w = ruleController.winner(players);
         if (w == -1) {
             return -1; // nul
@@ -234,17 +496,40 @@ public class AITournament {
         }
     }
 
+    // historyScale d'un profil réglé par SpsaTuner (1.0, la valeur par défaut, sinon)
+    private static double historyScale(AIConfig cfg) {
+        if (!cfg.name().endsWith(".properties")) {
+            return 1.0;
+        }
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(Paths.get(cfg.name()))) {
+            props.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read profile " + cfg.name(), e);
+        }
+        return Double.parseDouble(props.getProperty("historyScale", "1.0").trim());
+    }
+
     // Crée le bon évaluateur en fonction de la configuration (statique ou "phased").
     private static Evaluator createEvaluator(AIConfig cfg) {
         if (cfg.phased()) {
+            if (cfg.name().endsWith(".properties")) {
+                try {
+                    return EvaluatorFactory.create(CompiledPhaseEvaluator.fromFile(Paths.get(cfg.name())));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read profile " + cfg.name(), e);
+                }
+            }
             // IA phased : on choisit le profil en fonction du nom de la config.
+            // La version générée (poids en constantes) donne les mêmes scores que
+            // PhaseEvaluator, plus vite ; repli sur CompiledPhaseEvaluator sans compilateur.
             return switch (cfg.name()) {
-                case "PhaseAggressive" -> new PhaseEvaluator(PhaseEvaluator.PhaseProfile.AGGRESSIVE_ENDGAME);
-                case "PhaseSafeOpening" -> new PhaseEvaluator(PhaseEvaluator.PhaseProfile.SAFE_OPENING);
-                case "PhaseUltimate" -> new PhaseEvaluator(PhaseEvaluator.PhaseProfile.ULTIMATE);
-                default -> new PhaseEvaluator(PhaseEvaluator.PhaseProfile.BALANCED);
+                case "PhaseAggressive" -> EvaluatorFactory.create(PhaseEvaluator.PhaseProfile.AGGRESSIVE_ENDGAME);
+                case "PhaseSafeOpening" -> EvaluatorFactory.create(PhaseEvaluator.PhaseProfile.SAFE_OPENING);
+                case "PhaseUltimate" -> EvaluatorFactory.create(PhaseEvaluator.PhaseProfile.ULTIMATE);
+                default -> EvaluatorFactory.create(PhaseEvaluator.PhaseProfile.BALANCED);
             };
         }
-        return new Evaluator(cfg.capturedWeight(), cfg.boardWeight(), cfg.scale(), cfg.famineWeight());
+        return EvaluatorFactory.create(cfg.capturedWeight(), cfg.boardWeight(), cfg.scale(), cfg.famineWeight());
     }
 }
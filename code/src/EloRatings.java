@@ -0,0 +1,173 @@
+import java.util.Arrays;
+
+/**
+ * Classement Elo par maximum de vraisemblance (modèle de Bradley-Terry).
+ *
+ * La probabilité que i batte j vaut g_i / (g_i + g_j), avec Elo_i = 400 log10(g_i) ;
+ * un nul compte pour une demi-victoire de chaque côté. Les forces sont obtenues
+ * par l'algorithme MM de Hunter :
+ *   g_i <- W_i / somme_j (n_ij / (g_i + g_j))
+ * (W_i points marqués, n_ij parties entre i et j). Comme dans BayesElo, un nul
+ * virtuel est ajouté pour chaque paire d'adversaires : une configuration sans
+ * victoire (ou sans défaite) garde ainsi un classement fini.
+ *
+ * Les Elo sont relatifs à la configuration de référence (Elo 0). L'intervalle
+ * de confiance à 95 % vient de l'information de Fisher en ce point.
+ */
+public class EloRatings {
+
+    private static final double Z95 = 1.959964;
+    private static final int MAX_ITERATIONS = 100_000;
+
+    private final int size;
+    private final double[][] games;
+    private final double[] points;
+
+    public EloRatings(int size) {
+        this.size = size;
+        this.games = new double[size][size];
+        this.points = new double[size];
+    }
+
+    /** Ajoute une partie entre a et b ; scoreA = 1, 0.5 ou 0. */
+    public void add(int a, int b, double scoreA) {
+        games[a][b]++;
+        games[b][a]++;
+        points[a] += scoreA;
+        points[b] += 1.0 - scoreA;
+    }
+
+    public double games(int i) {
+        double n = 0;
+        for (int j = 0; j < size; j++) {
+            n += games[i][j];
+        }
+        return n;
+    }
+
+    public double points(int i) {
+        return points[i];
+    }
+
+    /**
+     * Elo et demi-largeur de l'intervalle à 95 % de chaque configuration :
+     * result[i] = {elo, marge}. NaN pour une configuration sans partie.
+     */
+    public double[][] compute(int anchor) {
+        double[][] n = new double[size][size];
+        double[] w = points.clone();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i != j && games[i][j] > 0) {
+                    n[i][j] = games[i][j] + 1;
+                    w[i] += 0.5;
+                }
+            }
+        }
+
+        double[] gamma = new double[size];
+        Arrays.fill(gamma, 1.0);
+        for (int it = 0; it < MAX_ITERATIONS; it++) {
+            double change = 0.0;
+            for (int i = 0; i < size; i++) {
+                double denominator = 0.0;
+                for (int j = 0; j < size; j++) {
+                    if (n[i][j] > 0) {
+                        denominator += n[i][j] / (gamma[i] + gamma[j]);
+                    }
+                }
+                if (denominator > 0) {
+                    double updated = w[i] / denominator;
+                    change = Math.max(change, Math.abs(Math.log(updated / gamma[i])));
+                    gamma[i] = updated;
+                }
+            }
+            double reference = gamma[anchor];
+            for (int i = 0; i < size; i++) {
+                gamma[i] /= reference;
+            }
+            if (change < 1e-10) {
+                break;
+            }
+        }
+
+        // Information de Fisher sur r_i = ln g_i, la référence étant fixée
+        int[] index = new int[size];
+        int m = 0;
+        for (int i = 0; i < size; i++) {
+            index[i] = i == anchor ? -1 : m++;
+        }
+        double[][] info = new double[m][m];
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (n[i][j] == 0) {
+                    continue;
+                }
+                double p = gamma[i] / (gamma[i] + gamma[j]);
+                double v = n[i][j] * p * (1.0 - p);
+                if (index[i] >= 0) info[index[i]][index[i]] += v;
+                if (index[j] >= 0) info[index[j]][index[j]] += v;
+                if (index[i] >= 0 && index[j] >= 0) {
+                    info[index[i]][index[j]] -= v;
+                    info[index[j]][index[i]] -= v;
+                }
+            }
+        }
+        double[][] covariance = invert(info);
+
+        double toElo = 400.0 / Math.log(10.0);
+        double[][] result = new double[size][];
+        for (int i = 0; i < size; i++) {
+            if (games(i) == 0) {
+                result[i] = new double[] { Double.NaN, Double.NaN };
+            } else if (i == anchor) {
+                result[i] = new double[] { 0.0, 0.0 };
+            } else {
+                double variance = covariance == null ? Double.NaN : covariance[index[i]][index[i]];
+                result[i] = new double[] { toElo * Math.log(gamma[i]), Z95 * toElo * Math.sqrt(variance) };
+            }
+        }
+        return result;
+    }
+
+    // Inverse par Gauss-Jordan avec pivot partiel ; null si la matrice est singulière
+    private static double[][] invert(double[][] a) {
+        int m = a.length;
+        double[][] x = new double[m][2 * m];
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(a[i], 0, x[i], 0, m);
+            x[i][m + i] = 1.0;
+        }
+        for (int c = 0; c < m; c++) {
+            int pivot = c;
+            for (int r = c + 1; r < m; r++) {
+                if (Math.abs(x[r][c]) > Math.abs(x[pivot][c])) {
+                    pivot = r;
+                }
+            }
+            if (Math.abs(x[pivot][c]) < 1e-12) {
+                return null;
+            }
+            double[] tmp = x[c];
+            x[c] = x[pivot];
+            x[pivot] = tmp;
+            double d = x[c][c];
+            for (int k = 0; k < 2 * m; k++) {
+                x[c][k] /= d;
+            }
+            for (int r = 0; r < m; r++) {
+                if (r != c && x[r][c] != 0.0) {
+                    double f = x[r][c];
+                    for (int k = 0; k < 2 * m; k++) {
+                        x[r][k] -= f * x[c][k];
+                    }
+                }
+            }
+        }
+        double[][] inverse = new double[m][m];
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(x[i], m, inverse[i], 0, m);
+        }
+        return inverse;
+    }
+}
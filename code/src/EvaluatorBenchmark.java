@@ -0,0 +1,129 @@
+import controllers.CompiledPhaseEvaluator;
+import controllers.Evaluator;
+import controllers.EvaluatorFactory;
+import controllers.NeuralEvaluator;
+import controllers.PhaseEvaluator;
+import controllers.RuleController;
+import controllers.TableEvaluator;
+import controllers.VectorEvaluator;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import models.Board;
+import models.MoveCommand;
+import models.MoveFactory;
+import models.Player;
+
+/**
+ * Mesure le débit (évaluations par seconde) des évaluateurs sur un même jeu de
+ * positions tirées de parties aléatoires.
+ *
+ * Usage : java EvaluatorBenchmark [positions] [secondes par mesure] [poids.nnue]
+ * (ajouter --add-modules jdk.incubator.vector pour mesurer VectorEvaluator en vectoriel)
+ *
+ * Pour chaque évaluateur : une phase de chauffe (compilation JIT), puis plusieurs
+ * mesures dont on garde la meilleure. La somme des scores est affichée pour que le
+ * JIT ne puisse pas supprimer les appels.
+ */
+public class EvaluatorBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURE_ROUNDS = 5;
+
+    private record Position(Board board, Player[] players, int playerIndex) {}
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 1.0;
+        NeuralEvaluator neural = args.length > 2
+                ? NeuralEvaluator.load(Paths.get(args[2]))
+                : NeuralEvaluator.materialNetwork();
+
+        List<Position> positions = randomPositions(count, new Random(42));
+        System.out.printf("%d positions, %.1f s per round%n", positions.size(), seconds);
+
+        Map<String, Evaluator> evaluators = new LinkedHashMap<>();
+        evaluators.put("Evaluator", new Evaluator());
+        evaluators.put("Generated (Evaluator)", EvaluatorFactory.create(1.0, 0.5, 0.5, 0.3));
+        evaluators.put("PhaseEvaluator", new PhaseEvaluator(PhaseEvaluator.PhaseProfile.BALANCED));
+        evaluators.put("CompiledPhaseEvaluator", new CompiledPhaseEvaluator(PhaseEvaluator.PhaseProfile.BALANCED));
+        evaluators.put("Generated (BALANCED)", EvaluatorFactory.create(PhaseEvaluator.PhaseProfile.BALANCED));
+        evaluators.put("TableEvaluator", new TableEvaluator());
+        evaluators.put("NeuralEvaluator", neural);
+        VectorEvaluator vector = new VectorEvaluator();
+        evaluators.put("VectorEvaluator/" + vector.getKernels().name(), vector);
+
+        double reference = 0.0;
+        for (Map.Entry<String, Evaluator> e : evaluators.entrySet()) {
+            double rate = measure(e.getValue(), positions, seconds);
+            if (e.getKey().equals("PhaseEvaluator")) {
+                reference = rate;
+            }
+            String ratio = reference > 0.0 ? String.format("  (x%.2f vs PhaseEvaluator)", rate / reference) : "";
+            System.out.printf("%-34s %,14.0f evals/s%s%n", e.getKey(), rate, ratio);
+        }
+    }
+
+    private static double measure(Evaluator evaluator, List<Position> positions, double seconds) {
+        long checksum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            checksum += runFor(evaluator, positions, seconds / 2)[1];
+        }
+        double best = 0.0;
+        for (int round = 0; round < MEASURE_ROUNDS; round++) {
+            long[] result = runFor(evaluator, positions, seconds);
+            checksum += result[1];
+            best = Math.max(best, result[0] * 1e9 / result[2]);
+        }
+        if (checksum == Long.MIN_VALUE) {
+            System.out.println("(checksum " + checksum + ")");
+        }
+        return best;
+    }
+
+    // Renvoie {évaluations, somme des scores, durée en ns}
+    private static long[] runFor(Evaluator evaluator, List<Position> positions, double seconds) {
+        long budget = (long) (seconds * 1e9);
+        long start = System.nanoTime();
+        long evals = 0;
+        long sum = 0;
+        long elapsed;
+        do {
+            for (Position p : positions) {
+                sum += evaluator.evaluate(p.board(), p.players(), p.playerIndex());
+            }
+            evals += positions.size();
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < budget);
+        return new long[] { evals, sum, elapsed };
+    }
+
+    // Positions rencontrées au fil de parties jouées au hasard
+    private static List<Position> randomPositions(int count, Random rng) {
+        RuleController ruleController = new RuleController();
+        List<Position> positions = new ArrayList<>(count);
+        while (positions.size() < count) {
+            Board board = new Board();
+            Player[] players = { new Player(0, "Player 1"), new Player(1, "Player 2") };
+            MoveFactory factory = new MoveFactory(board, ruleController, players, true);
+            int current = 0;
+            while (positions.size() < count && !ruleController.isGameOver(board, players)) {
+                List<String> moves = ruleController.legalMoves(board, players[current]);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                MoveCommand cmd = factory.createMove(moves.get(rng.nextInt(moves.size())), players[current]);
+                if (cmd == null || !cmd.execute()) {
+                    break;
+                }
+                current = 1 - current;
+                Player[] snapshot = { new Player(players[0]), new Player(players[1]) };
+                positions.add(new Position(new Board(board), snapshot, current));
+            }
+        }
+        return positions;
+    }
+}
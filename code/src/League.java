@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parties d'un tournoi toutes rondes ou d'un gauntlet et leurs résultats.
+ *
+ * Pour chaque appariement (a, b) et chaque tour r, deux parties couleurs
+ * inversées, de graine seed + r. Les résultats sont lus et écrits dans un
+ * MatchResults : pending() ne renvoie que les parties absentes du fichier. Le
+ * hash d'une configuration .properties inclut le contenu du profil.
+ * Utilisée par AITournament (parties jouées sur place) et MatchCoordinator
+ * (parties distribuées à des MatchWorker).
+ */
+class League {
+
+    /** Une partie : indices des configurations dans la ligue, graine, camp qui commence. */
+    record Game(int a, int b, long seed, boolean aStarts) {}
+
+    private final List<AIConfig> configs;
+    private final List<int[]> pairings;
+    private final int anchor;
+    private final int rounds;
+    private final long seed;
+    private final MatchResults results;
+    private final long[] hashes;
+
+    private League(List<AIConfig> configs, List<int[]> pairings, int anchor, int rounds, long seed,
+                   MatchResults results) {
+        this.configs = configs;
+        this.pairings = pairings;
+        this.anchor = anchor;
+        this.rounds = rounds;
+        this.seed = seed;
+        this.results = results;
+        this.hashes = new long[configs.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = configHash(configs.get(i));
+        }
+    }
+
+    // Hash de la configuration ; pour un profil .properties, le contenu du fichier en
+    // fait partie : un profil réentraîné sous le même nom ne reprend pas les anciens
+    // résultats
+    private static long configHash(AIConfig cfg) {
+        String description = cfg.toString();
+        if (cfg.name().endsWith(".properties")) {
+            try {
+                byte[] profile = Files.readAllBytes(Paths.get(cfg.name()));
+                description += "\n" + new String(profile, StandardCharsets.ISO_8859_1);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read profile " + cfg.name(), e);
+            }
+        }
+        return MatchResults.configHash(description);
+    }
+
+    /** Chaque configuration contre toutes les autres ; Elo relatifs à la première. */
+    static League roundRobin(List<AIConfig> configs, int rounds, long seed, MatchResults results) {
+        List<int[]> pairings = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) {
+            for (int j = i + 1; j < configs.size(); j++) {
+                pairings.add(new int[] { i, j });
+            }
+        }
+        return new League(configs, pairings, 0, rounds, seed, results);
+    }
+
+    /** Le champion contre chacune des autres ; Elo relatifs au champion. */
+    static League gauntlet(List<AIConfig> configs, String champion, int rounds, long seed, MatchResults results) {
+        int anchor = -1;
+        for (int i = 0; i < configs.size(); i++) {
+            if (configs.get(i).name().equalsIgnoreCase(champion)) {
+                anchor = i;
+            }
+        }
+        if (anchor < 0) {
+            throw new IllegalArgumentException("Unknown config: " + champion);
+        }
+        List<int[]> pairings = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) {
+            if (i != anchor) {
+                pairings.add(new int[] { anchor, i });
+            }
+        }
+        return new League(configs, pairings, anchor, rounds, seed, results);
+    }
+
+    AIConfig config(int i) {
+        return configs.get(i);
+    }
+
+    int totalGames() {
+        return pairings.size() * rounds * 2;
+    }
+
+    /** Parties pas encore présentes dans le fichier de résultats. */
+    List<Game> pending() {
+        List<Game> games = new ArrayList<>();
+        for (int[] pairing : pairings) {
+            for (int r = 0; r < rounds; r++) {
+                for (boolean aStarts : new boolean[] { true, false }) {
+                    if (results.lookup(hashes[pairing[0]], hashes[pairing[1]], seed + r, aStarts) == null) {
+                        games.add(new Game(pairing[0], pairing[1], seed + r, aStarts));
+                    }
+                }
+            }
+        }
+        return games;
+    }
+
+    /** Enregistre le résultat d'une partie (scoreA = 1, 0.5 ou 0) et l'affiche. */
+    void record(Game game, double scoreA) throws IOException {
+        AIConfig cfgA = configs.get(game.a());
+        AIConfig cfgB = configs.get(game.b());
+        results.record(new MatchResults.Game(hashes[game.a()], hashes[game.b()], game.seed(), game.aStarts(), scoreA),
+                       cfgA.name(), cfgB.name());
+        System.out.printf("%s vs %s (seed %d, %s first): %s%n", cfgA.name(), cfgB.name(),
+                game.seed(), game.aStarts() ? cfgA.name() : cfgB.name(),
+                scoreA == 1.0 ? cfgA.name() : (scoreA == 0.0 ? cfgB.name() : "Draw"));
+    }
+
+    /** Classement Elo sur toutes les parties de la ligue présentes dans le fichier. */
+    void printRatings() {
+        EloRatings ratings = new EloRatings(configs.size());
+        for (int[] pairing : pairings) {
+            for (int r = 0; r < rounds; r++) {
+                for (boolean aStarts : new boolean[] { true, false }) {
+                    Double scoreA = results.lookup(hashes[pairing[0]], hashes[pairing[1]], seed + r, aStarts);
+                    if (scoreA != null) {
+                        ratings.add(pairing[0], pairing[1], scoreA);
+                    }
+                }
+            }
+        }
+        double[][] elo = ratings.compute(anchor);
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) {
+            order.add(i);
+        }
+        order.sort((i, j) -> Double.compare(elo[j][0], elo[i][0]));
+
+        System.out.printf("Elo relative to %s (95%% confidence):%n", configs.get(anchor).name());
+        for (int i : order) {
+            double games = ratings.games(i);
+            System.out.printf(Locale.ROOT, "%-20s %7.1f +/- %5.1f   %5.1f%% of %d games%n",
+                    configs.get(i).name(), elo[i][0], elo[i][1],
+                    games == 0 ? 0.0 : 100.0 * ratings.points(i) / games, (int) games);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Distribue les parties d'une League à des MatchWorker (autres JVM, sur la même
+ * machine ou ailleurs) par TCP, et enregistre leurs résultats.
+ *
+ * Protocole texte, une ligne par message (UTF-8) :
+ *   worker -> coordinateur : HELLO nom
+ *   coordinateur -> worker : JOB id aCommence graine ouverture configA configB
+ *   worker -> coordinateur : RESULT id scoreA
+ *                            ERROR id message   (la partie a levé une exception)
+ *   coordinateur -> worker : DONE   (plus rien à jouer)
+ * aCommence vaut 1 ou 0, l'ouverture est la liste des coups séparés par des
+ * virgules ("-" si vide), les configurations sont au format AIConfig.toLine.
+ * Un worker ne joue qu'une partie à la fois par connexion.
+ *
+ * Si une connexion se ferme, ne répond pas dans JOB_TIMEOUT_MS ou renvoie ERROR,
+ * la partie en cours est remise dans la file pour un autre worker. Après
+ * MAX_ATTEMPTS échecs, elle est abandonnée (absente du fichier de résultats, elle
+ * sera retentée au prochain lancement) : une partie qui échoue toujours ne
+ * bloque pas le tournoi. Chaque résultat est écrit
+ * aussitôt dans le fichier de résultats de la ligue : un tournoi interrompu
+ * reprend en relançant la même commande, sans rejouer les parties terminées.
+ *
+ * Il n'y a pas d'authentification : n'ouvrir le port que sur un réseau de confiance.
+ */
+public class MatchCoordinator {
+
+    // Délai maximal d'une partie avant de la considérer perdue (worker bloqué)
+    private static final long JOB_TIMEOUT_MS = 15 * 60 * 1000L;
+
+    // Nombre d'échecs d'une partie avant de l'abandonner
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final League league;
+    private final LongFunction<List<String>> openings;
+    private final BlockingQueue<League.Game> queue = new LinkedBlockingQueue<>();
+    private final Map<League.Game, Integer> failures = new ConcurrentHashMap<>();
+    private CountDownLatch remaining;
+
+    /** @param openings nombre de demi-coups aléatoires ou fichier OpeningSuite (lu ici seulement) */
+    public MatchCoordinator(League league, String openings) {
+        this.league = league;
+        this.openings = OpeningSuite.source(openings);
+    }
+
+    /**
+     * Attend que toutes les parties en attente soient jouées. Lance d'abord
+     * localWorkers JVM MatchWorker sur cette machine (0 = workers lancés à la main).
+     */
+    public void run(int port, int localWorkers, int threadsPerWorker) throws IOException, InterruptedException {
+        List<League.Game> pending = league.pending();
+        queue.addAll(pending);
+        remaining = new CountDownLatch(pending.size());
+        System.out.printf("%d games to play, %d already in results file%n",
+                pending.size(), league.totalGames() - pending.size());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        ExecutorService handlers = Executors.newCachedThreadPool();
+        List<Process> processes = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(port)) {
+            Thread acceptor = new Thread(() -> acceptLoop(server, handlers), "coordinator-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            System.out.printf("Coordinator listening on port %d%n", server.getLocalPort());
+
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            for (int w = 0; w < localWorkers; w++) {
+                processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        "MatchWorker", "localhost", Integer.toString(server.getLocalPort()),
+                        Integer.toString(threadsPerWorker))
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start());
+            }
+
+            remaining.await();
+        } finally {
+            handlers.shutdownNow();
+            for (Process process : processes) {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroy();
+                }
+            }
+        }
+    }
+
+    private void acceptLoop(ServerSocket server, ExecutorService handlers) {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                handlers.submit(() -> serve(socket));
+            } catch (IOException e) {
+                // serveur fermé : fin du tournoi
+                return;
+            }
+        }
+    }
+
+    // Une connexion worker : parties envoyées une par une jusqu'à ce qu'il n'en reste plus
+    private void serve(Socket socket) {
+        String name = socket.getRemoteSocketAddress().toString();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            socket.setSoTimeout((int) JOB_TIMEOUT_MS);
+            String hello = in.readLine();
+            if (hello == null || !hello.startsWith("HELLO ")) {
+                return;
+            }
+            name = hello.substring(6).trim() + " (" + name + ")";
+            System.out.println("Worker connected: " + name);
+
+            int id = 0;
+            while (true) {
+                League.Game game = null;
+                while (game == null && remaining.getCount() > 0) {
+                    game = queue.poll(1, TimeUnit.SECONDS);
+                }
+                if (game == null) {
+                    out.println("DONE");
+                    return;
+                }
+
+                boolean finished = false;
+                try {
+                    id++;
+                    List<String> opening = openings.apply(game.seed());
+                    out.println("JOB " + id + " " + (game.aStarts() ? 1 : 0) + " " + game.seed() + " "
+                            + (opening.isEmpty() ? "-" : String.join(",", opening)) + " "
+                            + league.config(game.a()).toLine() + " " + league.config(game.b()).toLine());
+                    String line = in.readLine();
+                    String[] parts = line == null ? new String[0] : line.trim().split("\\s+", 3);
+                    if (parts.length >= 2 && parts[0].equals("ERROR") && Integer.parseInt(parts[1]) == id) {
+                        // le worker reste utilisable : seule cette partie a échoué
+                        System.out.println("Game failed on worker " + name + ": "
+                                + (parts.length > 2 ? parts[2] : ""));
+                        continue;
+                    }
+                    if (parts.length != 3 || !parts[0].equals("RESULT") || Integer.parseInt(parts[1]) != id) {
+                        throw new IOException("Unexpected reply: " + line);
+                    }
+                    league.record(game, Double.parseDouble(parts[2]));
+                    finished = true;
+                    remaining.countDown();
+                } finally {
+                    if (!finished) {
+                        retryOrDrop(game, name);
+                    }
+                }
+            }
+        } catch (SocketException e) {
+            System.out.println("Worker lost: " + name);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Worker lost: " + name + " (" + e.getMessage() + ")");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Partie non terminée : remise dans la file, ou abandonnée après MAX_ATTEMPTS échecs
+    private void retryOrDrop(League.Game game, String name) {
+        int attempts = failures.merge(game, 1, Integer::sum);
+        if (attempts < MAX_ATTEMPTS) {
+            queue.add(game);
+            System.out.println("Requeued game from worker " + name);
+        } else {
+            String nameA = league.config(game.a()).name();
+            String nameB = league.config(game.b()).name();
+            System.out.printf("Dropped game %s vs %s (seed %d, %s first) after %d failures%n",
+                    nameA, nameB, game.seed(), game.aStarts() ? nameA : nameB, attempts);
+            remaining.countDown();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fichier de résultats de parties, en ajout seul.
+ *
+ * Une ligne par partie : hashA hashB graine aCommence scoreA nomA nomB
+ * (hashs en hexadécimal, aCommence = 1 ou 0, scoreA = 1, 0.5 ou 0 ; les noms
+ * ne servent qu'à la lecture). Une partie est identifiée par le hash des deux
+ * configurations, la graine et le camp qui commence : un tournoi relancé avec
+ * le même fichier ne rejoue que les parties absentes, et une configuration
+ * modifiée change de hash, donc repart de zéro.
+ *
+ * Chaque partie est écrite et vidée dès qu'elle est terminée : après un arrêt
+ * brutal, seule la dernière ligne peut être incomplète, et elle est ignorée.
+ */
+public class MatchResults implements AutoCloseable {
+
+    public record Game(long hashA, long hashB, long seed, boolean aStarts, double scoreA) {}
+
+    private final Map<String, Game> games = new HashMap<>();
+    private final BufferedWriter writer;
+
+    private MatchResults(BufferedWriter writer) {
+        this.writer = writer;
+    }
+
+    public static MatchResults open(Path file) throws IOException {
+        boolean needsNewline = false;
+        List<String> lines = new ArrayList<>();
+        if (Files.exists(file)) {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+                if (raf.length() > 0) {
+                    raf.seek(raf.length() - 1);
+                    needsNewline = raf.read() != '\n';
+                }
+            }
+        }
+
+        if (needsNewline && !lines.isEmpty()) {
+            // dernière ligne coupée par un arrêt brutal : ignorée même si elle semble
+            // complète ("0.5" coupé en "0" changerait le résultat), la partie sera rejouée
+            lines.remove(lines.size() - 1);
+        }
+
+        MatchResults results = new MatchResults(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        for (String line : lines) {
+            Game game = parse(line);
+            if (game != null) {
+                results.games.put(key(game.hashA(), game.hashB(), game.seed(), game.aStarts()), game);
+            }
+        }
+        if (needsNewline) {
+            // on repart sur une ligne propre
+            results.writer.newLine();
+            results.writer.flush();
+        }
+        return results;
+    }
+
+    /** Hash FNV-1a 64 bits, stable d'une exécution à l'autre (contrairement à hashCode). */
+    public static long configHash(String description) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : description.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** Score de A dans cette partie si elle a déjà été jouée (dans un sens ou l'autre), sinon null. */
+    public synchronized Double lookup(long hashA, long hashB, long seed, boolean aStarts) {
+        Game game = games.get(key(hashA, hashB, seed, aStarts));
+        if (game != null) {
+            return game.scoreA();
+        }
+        game = games.get(key(hashB, hashA, seed, !aStarts));
+        return game == null ? null : 1.0 - game.scoreA();
+    }
+
+    public synchronized void record(Game game, String nameA, String nameB) throws IOException {
+        writer.write(String.format(Locale.ROOT, "%016x %016x %d %d %s %s %s",
+                game.hashA(), game.hashB(), game.seed(), game.aStarts() ? 1 : 0,
+                formatScore(game.scoreA()), nameA, nameB));
+        writer.newLine();
+        writer.flush();
+        games.put(key(game.hashA(), game.hashB(), game.seed(), game.aStarts()), game);
+    }
+
+    public synchronized int size() {
+        return games.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private static Game parse(String line) {
+        String[] parts = line.trim().split("\\s+");
+        if (parts.length < 5) {
+            return null;
+        }
+        try {
+            return new Game(Long.parseUnsignedLong(parts[0], 16), Long.parseUnsignedLong(parts[1], 16),
+                            Long.parseLong(parts[2]), parts[3].equals("1"), Double.parseDouble(parts[4]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String key(long hashA, long hashB, long seed, boolean aStarts) {
+        return hashA + " " + hashB + " " + seed + " " + aStarts;
+    }
+
+    private static String formatScore(double score) {
+        return score == 0.5 ? "0.5" : (score > 0.5 ? "1" : "0");
+    }
+}
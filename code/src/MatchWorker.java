@@ -0,0 +1,106 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Worker de tournoi distribué : se connecte à un MatchCoordinator et joue les
+ * parties qu'il reçoit (voir MatchCoordinator pour le protocole).
+ *
+ * Usage : java MatchWorker [hôte] [port] [threads]
+ *
+ * Chaque thread ouvre sa propre connexion et joue une partie à la fois, avec
+ * AITournament.playSingleGame. Les profils .properties éventuels doivent être
+ * présents dans le répertoire courant du worker.
+ */
+public class MatchWorker {
+
+    private static final long CONNECT_TIMEOUT_MS = 30_000L;
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 9123;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        String prefix = hostName() + "-" + ProcessHandle.current().pid();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String name = prefix + "-" + t;
+            Thread worker = new Thread(() -> work(host, port, name), name);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private static void work(String host, int port, String name) {
+        try (Socket socket = connect(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            out.println("HELLO " + name);
+            String line;
+            while ((line = in.readLine()) != null && !line.equals("DONE")) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length != 7 || !parts[0].equals("JOB")) {
+                    System.err.println(name + ": unexpected message: " + line);
+                    return;
+                }
+                try {
+                    boolean aStarts = parts[2].equals("1");
+                    long seed = Long.parseLong(parts[3]);
+                    List<String> opening = parts[4].equals("-") ? List.of() : Arrays.asList(parts[4].split(","));
+                    AIConfig cfgA = AIConfig.parse(parts[5]);
+                    AIConfig cfgB = AIConfig.parse(parts[6]);
+
+                    double scoreA = AITournament.scoreOfA(AITournament.playSingleGame(cfgA, cfgB, aStarts, seed, opening));
+                    out.println("RESULT " + parts[1] + " " + scoreA);
+                    System.out.printf("%s: %s vs %s (seed %d) -> %s%n", name, cfgA.name(), cfgB.name(), seed, scoreA);
+                } catch (RuntimeException e) {
+                    // ouverture illégale, profil illisible... : le coordinateur décide s'il réessaie
+                    String message = String.valueOf(e).replaceAll("\\s+", " ");
+                    out.println("ERROR " + parts[1] + " " + message);
+                    System.err.println(name + ": game " + parts[1] + " failed: " + message);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(name + ": connection failed: " + e.getMessage());
+        }
+    }
+
+    // Le coordinateur peut démarrer après les workers : on réessaie pendant CONNECT_TIMEOUT_MS
+    private static Socket connect(String host, int port) throws IOException {
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+        while (true) {
+            try {
+                return new Socket(host, port);
+            } catch (ConnectException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "worker";
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import controllers.MinimaxPlayerController;
+import controllers.OpeningBook;
+import controllers.PhaseEvaluator;
+import controllers.RuleController;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import models.Board;
+import models.MoveCommand;
+import models.MoveFactory;
+import models.Player;
+import models.PositionHash;
+
+/**
+ * Construit hors ligne le livre d'ouverture lu par MinimaxPlayerController / JoueurExterne.
+ *
+ * Usage : java OpeningBookBuilder [fichier] [plies] [profondeur] [tempsMs] [threads]
+ *
+ * Toutes les positions atteignables en au plus "plies" demi-coups depuis new Board()
+ * sont recherchées en profondeur, sur plusieurs threads. Les positions déjà présentes
+ * dans le livre avec une profondeur suffisante sont sautées et le fichier est réécrit
+ * régulièrement : on peut interrompre la construction, la relancer, ou l'approfondir
+ * (plus de plies ou plus de profondeur) d'une nuit à l'autre.
+ */
+public class OpeningBookBuilder {
+
+    private static final int CHECKPOINT_EVERY = 200;
+
+    private record Position(Board board, Player[] players, int currentPlayerIndex, long key) {}
+
+    public static void main(String[] args) throws Exception {
+        Path bookPath = Paths.get(args.length > 0 ? args[0] : "opening.book");
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        long timeLimitMs = args.length > 3 ? Long.parseLong(args[3]) : 0L; // 0 = pas de limite
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        // Reprise : on repart du livre existant
+        Map<Long, OpeningBook.Entry> book = new ConcurrentHashMap<>();
+        OpeningBook existing = OpeningBook.openIfExists(bookPath);
+        if (existing != null) {
+            for (OpeningBook.Entry e : existing.entries()) {
+                book.put(e.key(), e);
+            }
+        }
+
+        List<Position> positions = enumeratePositions(plies);
+        List<Position> todo = new ArrayList<>();
+        for (Position pos : positions) {
+            OpeningBook.Entry e = book.get(pos.key());
+            if (e == null || e.depth() < depth) {
+                todo.add(pos);
+            }
+        }
+        System.out.printf("%d positions up to %d plies, %d already in book, %d to search (depth %d, %d threads)%n",
+                positions.size(), plies, positions.size() - todo.size(), todo.size(), depth, threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger done = new AtomicInteger();
+        long start = System.nanoTime();
+
+        for (Position pos : todo) {
+            pool.submit(() -> {
+                // Un contrôleur par recherche : pas d'état partagé entre threads
+                MinimaxPlayerController ai = new MinimaxPlayerController(
+                        new PhaseEvaluator(PhaseEvaluator.PhaseProfile.BALANCED), depth, timeLimitMs, false);
+                String move = ai.chooseMove(pos.board(), pos.players(), pos.currentPlayerIndex());
+                if (move != null) {
+                    int rotation = PositionHash.canonicalRotation(pos.board(), pos.currentPlayerIndex());
+                    int code = OpeningBook.encodeMove(move, rotation);
+                    int score = (int) Math.round(ai.getLastScore());
+                    book.put(pos.key(), new OpeningBook.Entry(pos.key(), code, ai.getLastDepth(), score));
+                }
+
+                int n = done.incrementAndGet();
+                if (n % CHECKPOINT_EVERY == 0) {
+                    checkpoint(bookPath, book);
+                    double secs = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("%d/%d positions (%.1f pos/s)%n", n, todo.size(), n / secs);
+                }
+            });
+        }
+
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        checkpoint(bookPath, book);
+        System.out.printf("Book written: %s (%d entries)%n", bookPath, book.size());
+    }
+
+    private static synchronized void checkpoint(Path bookPath, Map<Long, OpeningBook.Entry> book) {
+        try {
+            OpeningBook.write(bookPath, new ArrayList<>(book.values()));
+        } catch (IOException e) {
+            System.err.println("Checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    // Parcours en largeur des positions distinctes à au plus "plies" demi-coups du départ.
+    // Les clés étant canoniques, les positions équivalentes par rotation (avec échange
+    // des joueurs pour une rotation impaire) ne sont recherchées qu'une fois.
+    private static List<Position> enumeratePositions(int plies) {
+        RuleController ruleController = new RuleController();
+        Player[] startPlayers = { new Player(0, "Player 1"), new Player(1, "Player 2") };
+        Board startBoard = new Board();
+
+        Map<Long, Position> seen = new HashMap<>();
+        List<Position> frontier = new ArrayList<>();
+        Position start = new Position(startBoard, startPlayers, 0, PositionHash.of(startBoard, startPlayers, 0));
+        seen.put(start.key(), start);
+        frontier.add(start);
+
+        for (int ply = 0; ply < plies; ply++) {
+            List<Position> next = new ArrayList<>();
+            for (Position pos : frontier) {
+                Player mover = pos.players()[pos.currentPlayerIndex()];
+                for (String moveText : ruleController.legalMoves(pos.board(), mover)) {
+                    Board board = new Board(pos.board());
+                    Player[] players = { new Player(pos.players()[0]), new Player(pos.players()[1]) };
+                    MoveFactory factory = new MoveFactory(board, ruleController, players, true);
+                    MoveCommand cmd = factory.createMove(moveText, players[pos.currentPlayerIndex()]);
+                    if (cmd == null || !cmd.execute() || ruleController.isGameOver(board, players)) {
+                        continue;
+                    }
+                    int nextPlayer = 1 - pos.currentPlayerIndex();
+                    long key = PositionHash.of(board, players, nextPlayer);
+                    if (!seen.containsKey(key)) {
+                        Position child = new Position(board, players, nextPlayer, key);
+                        seen.put(key, child);
+                        next.add(child);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return new ArrayList<>(seen.values());
+    }
+}
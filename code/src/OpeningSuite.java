@@ -0,0 +1,218 @@
+import controllers.EvaluatorFactory;
+import controllers.MinimaxPlayerController;
+import controllers.PhaseEvaluator;
+import controllers.RuleController;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongFunction;
+import models.Board;
+import models.MoveCommand;
+import models.MoveFactory;
+import models.Player;
+import models.PositionHash;
+
+/**
+ * Suite d'ouvertures équilibrées pour les matchs entre IA.
+ *
+ * Usage : java OpeningSuite [sortie] [nombre] [demiCoups] [marge] [profondeur] [graine]
+ *
+ * Une ouverture est une suite de coups joués depuis la position de départ,
+ * alternativement par le joueur 1 et le joueur 2. Le fichier est un texte : une
+ * ouverture par ligne, coups séparés par des espaces, commentaires après '#'.
+ *
+ * La génération tire des suites de coups légaux au hasard et ne garde que les
+ * positions jugées équilibrées : le score d'une recherche à faible profondeur,
+ * vu du joueur au trait, doit rester dans [50 - marge, 50 + marge]. Les doublons
+ * sont écartés par hash de la suite de coups, et les transpositions (même position
+ * par un autre ordre de coups) par PositionHash.
+ */
+public class OpeningSuite {
+
+    private final List<List<String>> openings;
+
+    private OpeningSuite(List<List<String>> openings) {
+        this.openings = openings;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args.length > 0 ? args[0] : "openings.txt");
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int plies = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        double margin = args.length > 3 ? Double.parseDouble(args[3]) : 5.0;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1L;
+
+        OpeningSuite suite = generate(count, plies, margin, depth, seed);
+        suite.save(out, String.format(Locale.ROOT,
+                "OpeningSuite : %d ouvertures, %d demi-coups, |score - 50| <= %.1f (profondeur %d, graine %d)",
+                suite.size(), plies, margin, depth, seed));
+        System.out.printf("%d openings written to %s%n", suite.size(), out);
+    }
+
+    /**
+     * Ouverture associée à une clé (graine de la paire ou du tour) : "n" donne n
+     * demi-coups légaux tirés au hasard, un nom de fichier une OpeningSuite
+     * (ouverture n° clé modulo la taille de la suite).
+     */
+    public static LongFunction<List<String>> source(String arg) {
+        if (arg.matches("\\d+")) {
+            int plies = Integer.parseInt(arg);
+            return key -> random(new Random(key), plies);
+        }
+        try {
+            OpeningSuite suite = load(Paths.get(arg));
+            System.out.printf("%d openings loaded from %s%n", suite.size(), arg);
+            return key -> suite.get((int) Math.floorMod(key, (long) suite.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read opening suite " + arg, e);
+        }
+    }
+
+    // Suite de coups légaux tirés au hasard depuis la position de départ
+    public static List<String> random(Random rng, int plies) {
+        Board board = new Board();
+        Player[] players = { new Player(0, "Player 1"), new Player(1, "Player 2") };
+        RuleController ruleController = new RuleController();
+        MoveFactory moveFactory = new MoveFactory(board, ruleController, players, true);
+        List<String> moves = new ArrayList<>();
+        int current = 0;
+        for (int ply = 0; ply < plies && !ruleController.isGameOver(board, players); ply++) {
+            List<String> legal = ruleController.legalMoves(board, players[current]);
+            if (legal.isEmpty()) {
+                break;
+            }
+            String move = legal.get(rng.nextInt(legal.size()));
+            moveFactory.createMove(move, players[current]).execute();
+            moves.add(move);
+            current = 1 - current;
+        }
+        return moves;
+    }
+
+    public static OpeningSuite load(Path file) throws IOException {
+        List<List<String>> openings = new ArrayList<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            List<String> moves = Arrays.asList(line.split("\\s+"));
+            if (!isLegal(moves)) {
+                throw new IOException("Illegal opening at line " + (n + 1) + ": " + file);
+            }
+            openings.add(List.copyOf(moves));
+        }
+        if (openings.isEmpty()) {
+            throw new IOException("No openings in " + file);
+        }
+        return new OpeningSuite(openings);
+    }
+
+    /**
+     * Tire au hasard jusqu'à count ouvertures équilibrées de "plies" demi-coups.
+     * S'arrête après 100 essais par ouverture demandée, même si la suite est incomplète.
+     */
+    public static OpeningSuite generate(int count, int plies, double margin, int depth, long seed) {
+        Random rng = new Random(seed);
+        RuleController ruleController = new RuleController();
+        MinimaxPlayerController ai = new MinimaxPlayerController(
+                EvaluatorFactory.create(PhaseEvaluator.PhaseProfile.BALANCED), depth, 0L, false);
+        ai.setSeed(seed);
+
+        Set<Long> sequences = new HashSet<>();
+        Set<Long> positions = new HashSet<>();
+        List<List<String>> openings = new ArrayList<>();
+        for (long attempt = 0; openings.size() < count && attempt < 100L * count; attempt++) {
+            Board board = new Board();
+            Player[] players = { new Player(0, "Player 1"), new Player(1, "Player 2") };
+            MoveFactory moveFactory = new MoveFactory(board, ruleController, players, true);
+            List<String> moves = new ArrayList<>();
+            int current = 0;
+            while (moves.size() < plies && !ruleController.isGameOver(board, players)) {
+                List<String> legal = ruleController.legalMoves(board, players[current]);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                String move = legal.get(rng.nextInt(legal.size()));
+                moveFactory.createMove(move, players[current]).execute();
+                moves.add(move);
+                current = 1 - current;
+            }
+            if (moves.size() < plies || ruleController.isGameOver(board, players)
+                    || !sequences.add(sequenceHash(moves))) {
+                continue;
+            }
+            long position = PositionHash.of(board, players, current);
+            if (positions.contains(position)) {
+                continue;
+            }
+
+            ai.chooseMove(board, players, current);
+            double score = ai.getLastScore();
+            if (!Double.isNaN(score) && Math.abs(score - 50.0) <= margin) {
+                positions.add(position);
+                openings.add(List.copyOf(moves));
+            }
+        }
+        return new OpeningSuite(openings);
+    }
+
+    public void save(Path file, String header) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# " + header + "\n");
+            for (List<String> moves : openings) {
+                out.write(String.join(" ", moves) + "\n");
+            }
+        }
+    }
+
+    public int size() {
+        return openings.size();
+    }
+
+    public List<String> get(int index) {
+        return openings.get(index);
+    }
+
+    /** Hash d'une suite de coups (même FNV-1a que MatchResults.configHash). */
+    public static long sequenceHash(List<String> moves) {
+        return MatchResults.configHash(String.join(" ", moves));
+    }
+
+    private static boolean isLegal(List<String> moves) {
+        Board board = new Board();
+        Player[] players = { new Player(0, "Player 1"), new Player(1, "Player 2") };
+        RuleController ruleController = new RuleController();
+        MoveFactory moveFactory = new MoveFactory(board, ruleController, players, true);
+        int current = 0;
+        for (String move : moves) {
+            if (ruleController.isGameOver(board, players)) {
+                return false;
+            }
+            MoveCommand command = moveFactory.createMove(move, players[current]);
+            if (command == null || !command.execute()) {
+                return false;
+            }
+            current = 1 - current;
+        }
+        return true;
+    }
+}
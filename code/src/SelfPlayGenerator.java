@@ -0,0 +1,208 @@
+import controllers.CachedEvaluator;
+import controllers.CompiledPhaseEvaluator;
+import controllers.MinimaxPlayerController;
+import controllers.OpeningBook;
+import controllers.PhaseEvaluator;
+import controllers.RuleController;
+import controllers.SampleShard;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import models.Board;
+import models.MoveCommand;
+import models.MoveFactory;
+import models.Player;
+
+/**
+ * Génère des échantillons d'entraînement par auto-jeu, sans affichage.
+ *
+ * Usage : java SelfPlayGenerator [dossier] [parties] [profondeur] [tempsMs] [pliesAléatoires] [threads] [positionsParFichier]
+ *
+ * Chaque thread joue des parties MinimaxPlayerController contre lui-même (même
+ * boucle de jeu que AITournament). Les premiers demi-coups sont tirés au hasard
+ * parmi les coups légaux pour diversifier les parties ; ensuite chaque position
+ * recherchée est enregistrée avec le score de la recherche, le coup joué et le
+ * résultat final.
+ *
+ * Les parties terminées passent par une file bornée vers un unique thread
+ * d'écriture : si le disque ne suit pas, les joueurs attendent (contre-pression)
+ * au lieu d'accumuler les parties en mémoire. Les fichiers selfplay-NNNN.samples
+ * (format SampleShard) changent tous les positionsParFichier échantillons ; une
+ * nouvelle exécution dans le même dossier ajoute de nouveaux fichiers.
+ */
+public class SelfPlayGenerator {
+
+    private static final int MAX_MOVES = 400; // même garde-fou que AITournament
+    private static final long REPORT_EVERY_SECONDS = 10;
+
+    private record Sample(Board board, Player[] players, int side, int score, int move) {}
+
+    private record Game(List<Sample> samples, int winner) {}
+
+    // Marqueur de fin pour le thread d'écriture
+    private static final Game END = new Game(List.of(), -1);
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "samples");
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long timeLimitMs = args.length > 3 ? Long.parseLong(args[3]) : 0L; // 0 = pas de limite
+        int randomPlies = args.length > 4 ? Integer.parseInt(args[4]) : 6;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        long perShard = args.length > 6 ? Long.parseLong(args[6]) : 5_000_000L;
+
+        Files.createDirectories(dir);
+        BlockingQueue<Game> queue = new ArrayBlockingQueue<>(4 * threads);
+        LongAdder gamesDone = new LongAdder();
+        LongAdder positions = new LongAdder();
+        LongAdder written = new LongAdder();
+        AtomicInteger nextGame = new AtomicInteger();
+        long seed = System.nanoTime();
+
+        Thread writer = new Thread(() -> writeLoop(dir, perShard, queue, written), "sample-writer");
+        writer.start();
+
+        // Évaluateur partagé par tous les threads : le cache est sans verrou
+        CachedEvaluator evaluator = new CachedEvaluator(
+                new CompiledPhaseEvaluator(PhaseEvaluator.PhaseProfile.BALANCED));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                // Un contrôleur par thread (killer moves / history ne sont pas partagés)
+                MinimaxPlayerController ai = new MinimaxPlayerController(evaluator, depth, timeLimitMs, false);
+                RuleController ruleController = new RuleController();
+                int g;
+                while ((g = nextGame.getAndIncrement()) < games) {
+                    Game game = playGame(ai, ruleController, randomPlies, new Random(seed + g));
+                    positions.add(game.samples().size());
+                    gamesDone.increment();
+                    try {
+                        queue.put(game);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> report(start, gamesDone, positions, written, queue),
+                REPORT_EVERY_SECONDS, REPORT_EVERY_SECONDS, TimeUnit.SECONDS);
+
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        queue.put(END);
+        writer.join();
+        reporter.shutdownNow();
+        report(start, gamesDone, positions, written, queue);
+    }
+
+    private static void report(long start, LongAdder games, LongAdder positions, LongAdder written,
+                               BlockingQueue<Game> queue) {
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d positions (%d written), %.0f positions/h, queue %d%n",
+                games.sum(), positions.sum(), written.sum(), positions.sum() * 3600.0 / secs, queue.size());
+    }
+
+    private static Game playGame(MinimaxPlayerController ai, RuleController ruleController,
+                                 int randomPlies, Random rng) {
+        Board board = new Board();
+        Player[] players = { new Player(0, "Player 1"), new Player(1, "Player 2") };
+        MoveFactory moveFactory = new MoveFactory(board, ruleController, players, true);
+        List<Sample> samples = new ArrayList<>();
+
+        int currentPlayerIndex = 0;
+        for (int ply = 0; ply < MAX_MOVES && !ruleController.isGameOver(board, players); ply++) {
+            Player current = players[currentPlayerIndex];
+            String moveText;
+            if (ply < randomPlies) {
+                List<String> legal = ruleController.legalMoves(board, current);
+                moveText = legal.isEmpty() ? null : legal.get(rng.nextInt(legal.size()));
+            } else {
+                Board before = new Board(board);
+                Player[] playersBefore = { new Player(players[0]), new Player(players[1]) };
+                moveText = ai.chooseMove(board, players, currentPlayerIndex);
+                if (moveText != null) {
+                    double score = ai.getLastScore();
+                    samples.add(new Sample(before, playersBefore, currentPlayerIndex,
+                            Double.isNaN(score) ? SampleShard.NONE : (int) Math.round(score),
+                            OpeningBook.encodeMove(moveText, 0)));
+                }
+            }
+
+            MoveCommand command = moveText == null ? null : moveFactory.createMove(moveText, current);
+            if (command == null || !command.execute()) {
+                // pas de coup jouable : l'autre joueur gagne, comme dans AITournament
+                return new Game(samples, 1 - currentPlayerIndex);
+            }
+            currentPlayerIndex = 1 - currentPlayerIndex;
+        }
+        // partie trop longue : nul
+        return new Game(samples, ruleController.isGameOver(board, players) ? ruleController.winner(players) : -1);
+    }
+
+    private static void writeLoop(Path dir, long perShard, BlockingQueue<Game> queue, LongAdder written) {
+        int shardIndex = firstFreeShard(dir);
+        SampleShard.Writer out = null;
+        try {
+            while (true) {
+                Game game = queue.take();
+                if (game == END) {
+                    break;
+                }
+                for (Sample s : game.samples()) {
+                    if (out == null || out.written() >= perShard) {
+                        if (out != null) {
+                            out.close();
+                        }
+                        out = new SampleShard.Writer(dir.resolve(shardName(shardIndex++)));
+                    }
+                    int result = game.winner() == -1 ? SampleShard.DRAW
+                            : (game.winner() == s.side() ? SampleShard.WIN : SampleShard.LOSS);
+                    out.write(s.board(), s.players(), s.side(), result, s.score(), s.move());
+                }
+                written.add(game.samples().size());
+            }
+        } catch (IOException e) {
+            System.err.println("Sample writer failed: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.err.println("Sample writer failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static String shardName(int index) {
+        return String.format("selfplay-%04d%s", index, SampleShard.EXTENSION);
+    }
+
+    private static int firstFreeShard(Path dir) {
+        int index = 0;
+        while (Files.exists(dir.resolve(shardName(index)))) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.Locale;
+
+/**
+ * Test séquentiel du rapport de vraisemblance (SPRT) sur des paires de parties.
+ *
+ * Une paire = deux parties sur la même ouverture, couleurs inversées. Le score de
+ * la paire pour A vaut 0, 1/2, 1, 3/2 ou 2 : on compte les paires par score
+ * (statistiques « pentanomiales »), ce qui neutralise l'avantage d'une ouverture
+ * déséquilibrée et réduit la variance par rapport au décompte partie par partie.
+ *
+ * H0 : elo = elo0, H1 : elo = elo1 (Elo logistique de A contre B).
+ * Le log du rapport de vraisemblance est l'approximation gaussienne (GSPRT) :
+ *   LLR = N * (s1 - s0) * (2 * m - s0 - s1) / (2 * v)
+ * avec N paires, m et v la moyenne et la variance du score par paire (ramené à
+ * [0, 1]) et s0, s1 les scores attendus sous H0 et H1. On arrête dès que
+ * LLR >= ln((1 - beta) / alpha) (H1 acceptée) ou LLR <= ln(beta / (1 - alpha)) (H0).
+ * Comme dans fishtest, m et v sont calculés sur un pentanomial régularisé :
+ * chaque case reçoit PSEUDO_COUNT paire de plus. Si toutes les paires ont le même
+ * score, la variance reste non nulle et le LLR progresse au lieu de rester à 0
+ * (une vingtaine de paires 2-0 suffisent pour elo0 = 0, elo1 = 10).
+ *
+ * Thread-safe : plusieurs threads de jeu ajoutent leurs paires en parallèle.
+ */
+public class Sprt {
+
+    public enum Decision { CONTINUE, ACCEPT_H0, ACCEPT_H1 }
+
+    // Quantile 97,5 % de la loi normale (intervalle de confiance à 95 %)
+    private static final double Z95 = 1.959964;
+
+    // Pseudo-effectif ajouté à chaque case du pentanomial pour calculer m et v ;
+    // 1e-3 comme fishtest ferait conclure dès la première paire
+    private static final double PSEUDO_COUNT = 0.5;
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    // pentanomial[k] = nombre de paires où A a marqué k / 2 points
+    private final long[] pentanomial = new long[5];
+
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("Invalid SPRT parameters");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /** Ajoute une paire : scores de A (0, 0.5 ou 1) dans chacune des deux parties. */
+    public synchronized void addPair(double scoreGame1, double scoreGame2) {
+        pentanomial[(int) Math.round(2 * (scoreGame1 + scoreGame2))]++;
+    }
+
+    public synchronized long pairs() {
+        long n = 0;
+        for (long c : pentanomial) {
+            n += c;
+        }
+        return n;
+    }
+
+    public synchronized long[] pentanomial() {
+        return pentanomial.clone();
+    }
+
+    public synchronized double llr() {
+        long n = pairs();
+        if (n == 0) {
+            return 0.0;
+        }
+        double[] counts = regularized();
+        double total = total(counts);
+        double mean = mean(counts, total);
+        double variance = variance(counts, total, mean);
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return total * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+    }
+
+    public Decision decision() {
+        double llr = llr();
+        if (llr >= upperBound) {
+            return Decision.ACCEPT_H1;
+        }
+        if (llr <= lowerBound) {
+            return Decision.ACCEPT_H0;
+        }
+        return Decision.CONTINUE;
+    }
+
+    /** Elo estimé de A et intervalle de confiance à 95 % : {elo, bas, haut}. */
+    public synchronized double[] elo() {
+        long n = pairs();
+        if (n == 0) {
+            return new double[] { 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+        }
+        double[] counts = regularized();
+        double total = total(counts);
+        double mean = mean(counts, total);
+        double margin = Z95 * Math.sqrt(variance(counts, total, mean) / total);
+        return new double[] { eloOf(mean), eloOf(mean - margin), eloOf(mean + margin) };
+    }
+
+    public String status() {
+        double[] elo = elo();
+        long[] p = pentanomial();
+        return String.format(Locale.ROOT,
+                "pairs %d [%d %d %d %d %d]  LLR %.2f (%.2f, %.2f)  Elo %.1f [%.1f, %.1f]",
+                pairs(), p[0], p[1], p[2], p[3], p[4], llr(), lowerBound, upperBound,
+                elo[0], elo[1], elo[2]);
+    }
+
+    // Pentanomial avec PSEUDO_COUNT paire de plus dans chaque case
+    private double[] regularized() {
+        double[] counts = new double[5];
+        for (int k = 0; k < 5; k++) {
+            counts[k] = pentanomial[k] + PSEUDO_COUNT;
+        }
+        return counts;
+    }
+
+    private static double total(double[] counts) {
+        double sum = 0.0;
+        for (double c : counts) {
+            sum += c;
+        }
+        return sum;
+    }
+
+    // Score moyen par paire, ramené à [0, 1]
+    private static double mean(double[] counts, double total) {
+        double sum = 0.0;
+        for (int k = 0; k < 5; k++) {
+            sum += counts[k] * (k / 4.0);
+        }
+        return sum / total;
+    }
+
+    private static double variance(double[] counts, double total, double mean) {
+        double sum = 0.0;
+        for (int k = 0; k < 5; k++) {
+            double d = k / 4.0 - mean;
+            sum += counts[k] * d * d;
+        }
+        return sum / total;
+    }
+
+    static double expectedScore(double elo) {
+        return 1.0 / (1.0 + Math.pow(10.0, -elo / 400.0));
+    }
+
+    static double eloOf(double score) {
+        if (score <= 0.0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400.0 * Math.log10(1.0 / score - 1.0);
+    }
+}
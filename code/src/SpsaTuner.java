@@ -0,0 +1,287 @@
+import controllers.CompiledPhaseEvaluator;
+import controllers.Evaluator;
+import controllers.MinimaxPlayerController;
+import controllers.PhaseEvaluator;
+import controllers.RuleController;
+import controllers.TuningFeatures;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+import models.Board;
+import models.MoveCommand;
+import models.MoveFactory;
+import models.Player;
+
+/**
+ * Réglage des paramètres par SPSA (Simultaneous Perturbation Stochastic
+ * Approximation), à partir de matchs joués en parallèle.
+ *
+ * Usage : java SpsaTuner [profil de départ] [sortie.properties] [itérations] [paires]
+ *                        [profondeur] [threads] [ouvertures] [R] [graine]
+ *   profil de départ : nom d'un PhaseProfile (BALANCED, ...) ou fichier .properties
+ *   ouvertures : nombre de demi-coups aléatoires ou fichier OpeningSuite
+ *
+ * Paramètres réglés : pour chaque phase capturedWeight, boardWeight et
+ * mobilityWeight ; les seuils openingThreshold et midThreshold ; historyScale
+ * (incrément de l'history heuristic de MinimaxPlayerController). scale et
+ * famineWeight restent ceux du profil de départ : scale multiplie tous les poids,
+ * et famineWeight porte sur la même différence de graines que boardWeight.
+ *
+ * À l'itération k, chaque paramètre i est décalé de ±c_i / k^0.101 (signe tiré au
+ * hasard, le même vecteur de signes pour tous) ; θ+ et θ- jouent "paires" paires
+ * de parties (même ouverture, couleurs inversées). Avec r = (points de θ+ - points
+ * de θ-) / parties, chaque paramètre avance de a_k * c_k,i * r * signe_i, où
+ * a_k = R * ((A + 1) / (A + k))^0.602 et A = itérations / 10.
+ *
+ * Après chaque itération, le profil courant est écrit dans le fichier de sortie
+ * avec historyScale et le numéro d'itération : relancer avec ce fichier comme
+ * profil de départ reprend le réglage où il s'était arrêté. Le fichier se charge
+ * comme profil dans AITournament (nom de configuration en .properties).
+ */
+public class SpsaTuner {
+
+    private static final int MAX_MOVES = 400;
+    private static final double ALPHA = 0.602;
+    private static final double GAMMA = 0.101;
+
+    // Paramètre réglé : nom (clé du profil), perturbation c et bornes
+    private record Param(String name, double c, double min, double max) {}
+
+    private static final List<Param> PARAMS = List.of(
+            new Param("opening.capturedWeight", 0.1, 0.0, 5.0),
+            new Param("opening.boardWeight", 0.1, 0.0, 5.0),
+            new Param("opening.mobilityWeight", 0.05, 0.0, 2.0),
+            new Param("mid.capturedWeight", 0.1, 0.0, 5.0),
+            new Param("mid.boardWeight", 0.1, 0.0, 5.0),
+            new Param("mid.mobilityWeight", 0.05, 0.0, 2.0),
+            new Param("end.capturedWeight", 0.1, 0.0, 5.0),
+            new Param("end.boardWeight", 0.1, 0.0, 5.0),
+            new Param("end.mobilityWeight", 0.05, 0.0, 2.0),
+            new Param("openingThreshold", 4.0, 10.0, 96.0),
+            new Param("midThreshold", 4.0, 4.0, 90.0),
+            new Param("historyScale", 0.25, 0.0, 8.0));
+
+    public static void main(String[] args) throws Exception {
+        String start = args.length > 0 ? args[0] : "BALANCED";
+        Path out = Paths.get(args.length > 1 ? args[1] : "spsa.properties");
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int pairs = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        LongFunction<List<String>> openings = OpeningSuite.source(args.length > 6 ? args[6] : "4");
+        double r = args.length > 7 ? Double.parseDouble(args[7]) : 1.0;
+        long seed = args.length > 8 ? Long.parseLong(args[8]) : 1L;
+
+        CompiledPhaseEvaluator base = loadBase(start);
+        double[] theta = toParams(base, readHistoryScale(start));
+        int first = readIteration(start) + 1;
+        double bigA = iterations / 10.0;
+        Random rng = new Random(seed + first);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int k = first; k <= iterations; k++) {
+                double ak = r * Math.pow((bigA + 1) / (bigA + k), ALPHA);
+                double[] ck = new double[theta.length];
+                int[] sign = new int[theta.length];
+                double[] plus = new double[theta.length];
+                double[] minus = new double[theta.length];
+                for (int i = 0; i < theta.length; i++) {
+                    ck[i] = PARAMS.get(i).c() / Math.pow(k, GAMMA);
+                    sign[i] = rng.nextBoolean() ? 1 : -1;
+                    plus[i] = clamp(i, theta[i] + ck[i] * sign[i]);
+                    minus[i] = clamp(i, theta[i] - ck[i] * sign[i]);
+                }
+
+                double result = playMatch(pool, plus, minus, base, depth, pairs, openings,
+                                          seed + (long) k * pairs);
+                for (int i = 0; i < theta.length; i++) {
+                    theta[i] = clamp(i, theta[i] + ak * ck[i] * result * sign[i]);
+                }
+                checkpoint(out, theta, base, k);
+                System.out.printf(Locale.ROOT, "iteration %d: r = %+.3f, %s%n", k, result, describe(theta));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println();
+        System.out.println(TuningFeatures.phaseProfileSnippet(toEvaluator(theta, base), "Profil réglé par SpsaTuner"));
+        System.out.printf(Locale.ROOT, "historyScale = %.4f (fichier de profil %s)%n", theta[theta.length - 1], out);
+    }
+
+    private static CompiledPhaseEvaluator loadBase(String arg) throws IOException {
+        for (PhaseEvaluator.PhaseProfile profile : PhaseEvaluator.PhaseProfile.values()) {
+            if (profile.name().equalsIgnoreCase(arg)) {
+                return new CompiledPhaseEvaluator(profile);
+            }
+        }
+        return CompiledPhaseEvaluator.fromFile(Paths.get(arg));
+    }
+
+    // historyScale et spsa.iteration : clés ajoutées au profil par checkpoint
+    private static double readHistoryScale(String arg) throws IOException {
+        Properties props = readExtra(arg);
+        return Double.parseDouble(props.getProperty("historyScale", "1.0").trim());
+    }
+
+    private static int readIteration(String arg) throws IOException {
+        Properties props = readExtra(arg);
+        return Integer.parseInt(props.getProperty("spsa.iteration", "0").trim());
+    }
+
+    private static Properties readExtra(String arg) throws IOException {
+        Properties props = new Properties();
+        Path path = Paths.get(arg);
+        if (arg.endsWith(".properties") && Files.exists(path)) {
+            try (Reader in = Files.newBufferedReader(path)) {
+                props.load(in);
+            }
+        }
+        return props;
+    }
+
+    private static double[] toParams(CompiledPhaseEvaluator e, double historyScale) {
+        CompiledPhaseEvaluator.PhaseWeights[] phases = { e.getOpening(), e.getMid(), e.getEnd() };
+        double[] theta = new double[PARAMS.size()];
+        for (int p = 0; p < 3; p++) {
+            theta[3 * p] = phases[p].capturedWeight();
+            theta[3 * p + 1] = phases[p].boardWeight();
+            theta[3 * p + 2] = phases[p].mobilityWeight();
+        }
+        theta[9] = e.getOpeningThreshold();
+        theta[10] = e.getMidThreshold();
+        theta[11] = historyScale;
+        return theta;
+    }
+
+    private static CompiledPhaseEvaluator toEvaluator(double[] theta, CompiledPhaseEvaluator base) {
+        CompiledPhaseEvaluator.PhaseWeights[] phases = { base.getOpening(), base.getMid(), base.getEnd() };
+        CompiledPhaseEvaluator.PhaseWeights[] tuned = new CompiledPhaseEvaluator.PhaseWeights[3];
+        for (int p = 0; p < 3; p++) {
+            tuned[p] = new CompiledPhaseEvaluator.PhaseWeights(theta[3 * p], theta[3 * p + 1],
+                    phases[p].scale(), phases[p].famineWeight(), theta[3 * p + 2]);
+        }
+        int openingThreshold = (int) Math.round(theta[9]);
+        int midThreshold = Math.min((int) Math.round(theta[10]), openingThreshold - 1);
+        return new CompiledPhaseEvaluator(tuned[0], tuned[1], tuned[2],
+                                          openingThreshold, midThreshold, base.getInterpolationWidth());
+    }
+
+    private static double clamp(int i, double value) {
+        return Math.max(PARAMS.get(i).min(), Math.min(PARAMS.get(i).max(), value));
+    }
+
+    private static String describe(double[] theta) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < theta.length; i++) {
+            sb.append(String.format(Locale.ROOT, "%s%s=%.3f", i == 0 ? "" : " ", PARAMS.get(i).name(), theta[i]));
+        }
+        return sb.toString();
+    }
+
+    // Le profil est écrit dans un fichier temporaire renommé à la fin : un arrêt
+    // brutal ne laisse jamais le point de reprise à moitié écrit.
+    private static void checkpoint(Path out, double[] theta, CompiledPhaseEvaluator base, int iteration)
+            throws IOException {
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+        toEvaluator(theta, base).writeProfile(tmp, "SpsaTuner, iteration " + iteration);
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(tmp)) {
+            props.load(in);
+        }
+        props.setProperty("historyScale", Double.toString(theta[theta.length - 1]));
+        props.setProperty("spsa.iteration", Integer.toString(iteration));
+        try (Writer w = Files.newBufferedWriter(tmp)) {
+            props.store(w, "SpsaTuner, iteration " + iteration);
+        }
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Joue "pairs" paires θ+ contre θ- en parallèle et renvoie
+     * (points de θ+ - points de θ-) / parties, dans [-1, 1].
+     */
+    private static double playMatch(ExecutorService pool, double[] plus, double[] minus,
+                                    CompiledPhaseEvaluator base, int depth, int pairs,
+                                    LongFunction<List<String>> openings, long seed)
+            throws InterruptedException {
+        CompiledPhaseEvaluator evalPlus = toEvaluator(plus, base);
+        CompiledPhaseEvaluator evalMinus = toEvaluator(minus, base);
+        double historyPlus = plus[plus.length - 1];
+        double historyMinus = minus[minus.length - 1];
+
+        List<Future<Double>> futures = new ArrayList<>();
+        for (int p = 0; p < pairs; p++) {
+            long pairSeed = seed + p;
+            List<String> opening = openings.apply(pairSeed);
+            for (boolean plusStarts : new boolean[] { true, false }) {
+                futures.add(pool.submit(() -> playGame(evalPlus, historyPlus, evalMinus, historyMinus,
+                                                       depth, plusStarts, pairSeed, opening)));
+            }
+        }
+        double sum = 0.0;
+        for (Future<Double> f : futures) {
+            try {
+                sum += 2.0 * f.get() - 1.0;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Game failed", e.getCause());
+            }
+        }
+        return sum / futures.size();
+    }
+
+    // Partie A contre B sans limite de temps ; renvoie le score de A (1, 1/2 ou 0)
+    private static double playGame(Evaluator evalA, double historyA, Evaluator evalB, double historyB,
+                                   int depth, boolean aStarts, long seed, List<String> opening) {
+        Board board = new Board();
+        Player[] players = { new Player(0, "Player 1"), new Player(1, "Player 2") };
+        RuleController ruleController = new RuleController();
+        MoveFactory moveFactory = new MoveFactory(board, ruleController, players, true);
+
+        MinimaxPlayerController aiA = new MinimaxPlayerController(evalA, depth, 0L, false);
+        MinimaxPlayerController aiB = new MinimaxPlayerController(evalB, depth, 0L, false);
+        aiA.setHistoryScale(historyA);
+        aiB.setHistoryScale(historyB);
+        aiA.setSeed(seed);
+        aiB.setSeed(~seed);
+        MinimaxPlayerController[] controllers = aStarts
+                ? new MinimaxPlayerController[] { aiA, aiB }
+                : new MinimaxPlayerController[] { aiB, aiA };
+        int indexOfA = aStarts ? 0 : 1;
+
+        int currentPlayerIndex = 0;
+        for (String move : opening) {
+            moveFactory.createMove(move, players[currentPlayerIndex]).execute();
+            currentPlayerIndex = 1 - currentPlayerIndex;
+        }
+
+        for (int ply = 0; ply < MAX_MOVES && !ruleController.isGameOver(board, players); ply++) {
+            String moveText = controllers[currentPlayerIndex].chooseMove(board, players, currentPlayerIndex);
+            MoveCommand command = moveText == null ? null : moveFactory.createMove(moveText, players[currentPlayerIndex]);
+            if (command == null || !command.execute()) {
+                // pas de coup ou coup illégal : défaite
+                return currentPlayerIndex == indexOfA ? 0.0 : 1.0;
+            }
+            currentPlayerIndex = 1 - currentPlayerIndex;
+        }
+        if (!ruleController.isGameOver(board, players)) {
+            return 0.5;
+        }
+        int winner = ruleController.winner(players);
+        return winner == -1 ? 0.5 : (winner == indexOfA ? 1.0 : 0.0);
+    }
+}
@@ -0,0 +1,250 @@
+import controllers.CompiledPhaseEvaluator;
+import controllers.MinimaxPlayerController;
+import controllers.PhaseEvaluator;
+import controllers.RuleController;
+import controllers.TuningFeatures;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import models.Board;
+import models.MoveCommand;
+import models.MoveFactory;
+import models.Player;
+
+/**
+ * Apprentissage des poids par différences temporelles, TD(λ), en auto-jeu.
+ *
+ * Usage : java TDTrainer [profil de départ] [sortie.properties] [parties] [profondeur]
+ *                        [alpha] [lambda] [K] [threads]
+ *   profil de départ : nom d'un PhaseProfile (BALANCED, ...) ou fichier .properties
+ *
+ * Le modèle est celui de TexelTuner (TuningFeatures : 3 coefficients par phase).
+ * Chaque thread joue une partie avec les poids courants, puis calcule la mise à
+ * jour TD(λ) à partir des scores de recherche successifs, ramenés à une
+ * probabilité de gain du joueur 0 par sigmoid(K * (score - 50)), la valeur finale
+ * étant le résultat de la partie. Le gradient est pris sur les caractéristiques
+ * de la position au bout de la variante principale, celle dont l'évaluation a
+ * donné le score (TD-Leaf). Le solveur de fin de partie est désactivé : ses
+ * scores (victoire / nulle) ne dépendent pas des poids.
+ *
+ * Les poids sont partagés entre threads dans un AtomicLongArray : chaque partie
+ * ajoute sa mise à jour par compare-and-set, sans verrou. Le profil est écrit
+ * régulièrement (lisible par CompiledPhaseEvaluator.fromFile).
+ */
+public class TDTrainer {
+
+    private static final int MAX_MOVES = 400;
+    private static final int RANDOM_PLIES = 6;
+    private static final int CHECKPOINT_EVERY = 50;
+
+    // Position jouée : caractéristiques (vues du joueur au trait) de la feuille de la
+    // variante principale et score de la recherche
+    private record Step(int side, int[] features, double score) {}
+
+    public static void main(String[] args) throws Exception {
+        CompiledPhaseEvaluator base = loadBase(args.length > 0 ? args[0] : "BALANCED");
+        Path out = Paths.get(args.length > 1 ? args[1] : "td.properties");
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        double alpha = args.length > 4 ? Double.parseDouble(args[4]) : 1e-3;
+        double lambda = args.length > 5 ? Double.parseDouble(args[5]) : 0.7;
+        double k = args.length > 6 ? Double.parseDouble(args[6]) : 0.05;
+        int threads = args.length > 7 ? Integer.parseInt(args[7]) : Runtime.getRuntime().availableProcessors();
+
+        AtomicLongArray weights = new AtomicLongArray(TuningFeatures.NUM_PARAMS);
+        double[] initial = TuningFeatures.toParams(base);
+        for (int j = 0; j < initial.length; j++) {
+            weights.set(j, Double.doubleToRawLongBits(initial[j]));
+        }
+
+        AtomicInteger nextGame = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        long seed = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                RuleController ruleController = new RuleController();
+                int g;
+                while ((g = nextGame.getAndIncrement()) < games) {
+                    double[] params = snapshot(weights);
+                    MinimaxPlayerController ai = new MinimaxPlayerController(
+                            TuningFeatures.toEvaluator(params, base), depth, 0L, false);
+                    ai.setSolverThreshold(0);
+                    List<Step> steps = new ArrayList<>();
+                    double result = playGame(ai, ruleController, new Random(seed + g), steps);
+
+                    double[] delta = tdUpdate(steps, result, base, k, lambda);
+                    for (int j = 0; j < delta.length; j++) {
+                        add(weights, j, alpha * delta[j]);
+                    }
+
+                    int n = finished.incrementAndGet();
+                    if (n % CHECKPOINT_EVERY == 0) {
+                        checkpoint(out, snapshot(weights), base, n);
+                    }
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        checkpoint(out, snapshot(weights), base, finished.get());
+        System.out.println();
+        System.out.println(TuningFeatures.phaseProfileSnippet(
+                TuningFeatures.toEvaluator(snapshot(weights), base), "Profil appris par TDTrainer"));
+    }
+
+    private static CompiledPhaseEvaluator loadBase(String arg) throws IOException {
+        for (PhaseEvaluator.PhaseProfile profile : PhaseEvaluator.PhaseProfile.values()) {
+            if (profile.name().equalsIgnoreCase(arg)) {
+                return new CompiledPhaseEvaluator(profile);
+            }
+        }
+        return CompiledPhaseEvaluator.fromFile(Paths.get(arg));
+    }
+
+    private static double[] snapshot(AtomicLongArray weights) {
+        double[] params = new double[weights.length()];
+        for (int j = 0; j < params.length; j++) {
+            params[j] = Double.longBitsToDouble(weights.get(j));
+        }
+        return params;
+    }
+
+    // Addition atomique d'un double stocké sous forme de bits
+    private static void add(AtomicLongArray weights, int j, double value) {
+        long current;
+        long updated;
+        do {
+            current = weights.get(j);
+            updated = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + value);
+        } while (!weights.compareAndSet(j, current, updated));
+    }
+
+    private static synchronized void checkpoint(Path out, double[] params, CompiledPhaseEvaluator base, int games) {
+        try {
+            TuningFeatures.toEvaluator(params, base).writeProfile(out, "TDTrainer, " + games + " games");
+        } catch (IOException e) {
+            System.err.println("Checkpoint failed: " + e.getMessage());
+        }
+        StringBuilder sb = new StringBuilder();
+        for (double p : params) {
+            sb.append(String.format(Locale.ROOT, " %.4f", p));
+        }
+        System.out.printf("%d games, coefficients (A B C par phase):%s%n", games, sb);
+    }
+
+    /**
+     * Joue une partie (demi-coups aléatoires au début, comme SelfPlayGenerator) et
+     * renvoie le résultat pour le joueur 0 : 1, 1/2 ou 0.
+     */
+    private static double playGame(MinimaxPlayerController ai, RuleController ruleController,
+                                   Random rng, List<Step> steps) {
+        Board board = new Board();
+        Player[] players = { new Player(0, "Player 1"), new Player(1, "Player 2") };
+        MoveFactory moveFactory = new MoveFactory(board, ruleController, players, true);
+
+        int currentPlayerIndex = 0;
+        for (int ply = 0; ply < MAX_MOVES && !ruleController.isGameOver(board, players); ply++) {
+            Player current = players[currentPlayerIndex];
+            String moveText;
+            if (ply < RANDOM_PLIES) {
+                List<String> legal = ruleController.legalMoves(board, current);
+                moveText = legal.isEmpty() ? null : legal.get(rng.nextInt(legal.size()));
+            } else {
+                moveText = ai.chooseMove(board, players, currentPlayerIndex);
+                double score = ai.getLastScore();
+                if (moveText != null && !Double.isNaN(score)) {
+                    int[] features = new int[TuningFeatures.COUNT];
+                    leafFeatures(board, players, currentPlayerIndex, ai.getLastPv(), ruleController, features);
+                    steps.add(new Step(currentPlayerIndex, features, score));
+                }
+            }
+
+            MoveCommand command = moveText == null ? null : moveFactory.createMove(moveText, current);
+            if (command == null || !command.execute()) {
+                return currentPlayerIndex == 0 ? 0.0 : 1.0;
+            }
+            currentPlayerIndex = 1 - currentPlayerIndex;
+        }
+        if (!ruleController.isGameOver(board, players)) {
+            return 0.5;
+        }
+        int winner = ruleController.winner(players);
+        return winner == -1 ? 0.5 : (winner == 0 ? 1.0 : 0.0);
+    }
+
+    /**
+     * Caractéristiques, vues du joueur side, de la position atteinte en jouant la
+     * variante principale pv depuis la position courante (plateau non modifié).
+     */
+    private static void leafFeatures(Board board, Player[] players, int side, List<String> pv,
+                                     RuleController ruleController, int[] features) {
+        Board leaf = new Board(board);
+        Player[] leafPlayers = { new Player(players[0]), new Player(players[1]) };
+        MoveFactory moveFactory = new MoveFactory(leaf, ruleController, leafPlayers, true);
+        int playerIndex = side;
+        for (String move : pv) {
+            MoveCommand command = moveFactory.createMove(move, leafPlayers[playerIndex]);
+            if (command == null || !command.execute()) {
+                break;
+            }
+            playerIndex = 1 - playerIndex;
+        }
+        TuningFeatures.extract(leaf, leafPlayers, side, features);
+    }
+
+    /**
+     * Somme sur la partie de e_t * δ_t (vue « arrière » de TD(λ), traces d'éligibilité),
+     * avec v_t la probabilité de gain du joueur 0 et v_T = result.
+     */
+    private static double[] tdUpdate(List<Step> steps, double result,
+                                     CompiledPhaseEvaluator base, double k, double lambda) {
+        double[] delta = new double[TuningFeatures.NUM_PARAMS];
+        double[] trace = new double[TuningFeatures.NUM_PARAMS];
+        int n = steps.size();
+        for (int t = 0; t < n; t++) {
+            Step step = steps.get(t);
+            int phase = TuningFeatures.phase(step.features()[TuningFeatures.TOTAL],
+                                             base.getOpeningThreshold(), base.getMidThreshold());
+            double p = sigmoid(k * (step.score() - 50.0));
+            double v = step.side() == 0 ? p : 1.0 - p;
+            double next = t + 1 < n ? winProbability(steps.get(t + 1), k) : result;
+
+            // Gradient de v par rapport aux coefficients de la phase (modèle linéaire)
+            double dv = (step.side() == 0 ? 1.0 : -1.0) * k * p * (1.0 - p);
+            for (int j = 0; j < trace.length; j++) {
+                trace[j] *= lambda;
+            }
+            int b = phase * TuningFeatures.PARAMS_PER_PHASE;
+            trace[b] += dv * step.features()[TuningFeatures.CAPTURED];
+            trace[b + 1] += dv * step.features()[TuningFeatures.SEEDS];
+            trace[b + 2] += dv * step.features()[TuningFeatures.MOBILITY];
+
+            double error = next - v;
+            for (int j = 0; j < delta.length; j++) {
+                delta[j] += error * trace[j];
+            }
+        }
+        return delta;
+    }
+
+    private static double winProbability(Step step, double k) {
+        double p = sigmoid(k * (step.score() - 50.0));
+        return step.side() == 0 ? p : 1.0 - p;
+    }
+
+    private static double sigmoid(double x) {
+        return 1.0 / (1.0 + Math.exp(-x));
+    }
+}
@@ -0,0 +1,229 @@
+import controllers.CompiledPhaseEvaluator;
+import controllers.PhaseEvaluator;
+import controllers.SampleShard;
+import controllers.TuningFeatures;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Réglage des poids par phase à la manière de Texel, sur des échantillons
+ * (position, résultat) produits par l'auto-jeu (fichiers SampleShard).
+ *
+ * Usage : java TexelTuner [profil de départ] [sortie.properties] [itérations] fichiers-ou-dossiers...
+ *   profil de départ : nom d'un PhaseProfile (BALANCED, ...) ou fichier .properties
+ *
+ * On minimise l'erreur quadratique moyenne entre le résultat de la partie
+ * (0, 1/2, 1 pour le joueur au trait) et sigmoid(K * (score - 50)), où score est
+ * le modèle linéaire de TuningFeatures. K est d'abord ajusté sur le profil de
+ * départ, puis les 9 coefficients sont optimisés par descente de gradient (Adam).
+ * Le gradient est calculé en fork/join sur des tranches des fichiers mappés.
+ *
+ * Le profil est écrit régulièrement (lisible par CompiledPhaseEvaluator.fromFile),
+ * et la définition PhaseProfile correspondante est affichée à la fin.
+ */
+public class TexelTuner {
+
+    private static final int CHUNK = 1 << 16;
+    private static final int CHECKPOINT_EVERY = 10;
+    private static final double LEARNING_RATE = 0.005;
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    // Tranche [from, to[ d'un fichier d'échantillons
+    private record Slice(SampleShard shard, int from, int to) {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: java TexelTuner <profile|file.properties> <out.properties> <iterations> <samples...>");
+            System.exit(1);
+        }
+        CompiledPhaseEvaluator base = loadBase(args[0]);
+        Path out = Paths.get(args[1]);
+        int iterations = Integer.parseInt(args[2]);
+
+        List<Slice> slices = new ArrayList<>();
+        long samples = 0;
+        for (int i = 3; i < args.length; i++) {
+            for (Path file : sampleFiles(Paths.get(args[i]))) {
+                SampleShard shard = SampleShard.open(file);
+                for (int from = 0; from < shard.size(); from += CHUNK) {
+                    slices.add(new Slice(shard, from, Math.min(shard.size(), from + CHUNK)));
+                }
+                samples += shard.size();
+            }
+        }
+        if (samples == 0) {
+            System.err.println("No samples found");
+            System.exit(1);
+        }
+        System.out.printf("%d samples in %d slices, %d threads%n",
+                samples, slices.size(), ForkJoinPool.commonPool().getParallelism());
+
+        double[] params = TuningFeatures.toParams(base);
+        int openingThreshold = base.getOpeningThreshold();
+        int midThreshold = base.getMidThreshold();
+
+        double k = fitK(slices, params, openingThreshold, midThreshold);
+        double[] initial = pass(slices, params, k, openingThreshold, midThreshold);
+        System.out.printf(Locale.ROOT, "K = %.5f, initial error %.6f%n", k, initial[TuningFeatures.NUM_PARAMS]);
+
+        double[] m = new double[TuningFeatures.NUM_PARAMS];
+        double[] v = new double[TuningFeatures.NUM_PARAMS];
+        for (int it = 1; it <= iterations; it++) {
+            double[] result = pass(slices, params, k, openingThreshold, midThreshold);
+            for (int j = 0; j < TuningFeatures.NUM_PARAMS; j++) {
+                double g = result[j];
+                m[j] = BETA1 * m[j] + (1 - BETA1) * g;
+                v[j] = BETA2 * v[j] + (1 - BETA2) * g * g;
+                double mHat = m[j] / (1 - Math.pow(BETA1, it));
+                double vHat = v[j] / (1 - Math.pow(BETA2, it));
+                params[j] -= LEARNING_RATE * mHat / (Math.sqrt(vHat) + EPSILON);
+            }
+            if (it % CHECKPOINT_EVERY == 0 || it == iterations) {
+                System.out.printf(Locale.ROOT, "iteration %d: error %.6f%n", it, result[TuningFeatures.NUM_PARAMS]);
+                TuningFeatures.toEvaluator(params, base)
+                        .writeProfile(out, "TexelTuner, iteration " + it + ", K=" + k);
+            }
+        }
+
+        double[] last = pass(slices, params, k, openingThreshold, midThreshold);
+        CompiledPhaseEvaluator tuned = TuningFeatures.toEvaluator(params, base);
+        tuned.writeProfile(out, "TexelTuner, " + iterations + " iterations, K=" + k);
+        System.out.printf(Locale.ROOT, "Final error %.6f (was %.6f), profile written to %s%n",
+                last[TuningFeatures.NUM_PARAMS], initial[TuningFeatures.NUM_PARAMS], out);
+        System.out.println();
+        System.out.println(TuningFeatures.phaseProfileSnippet(tuned, "Profil réglé par TexelTuner"));
+    }
+
+    private static CompiledPhaseEvaluator loadBase(String arg) throws IOException {
+        for (PhaseEvaluator.PhaseProfile profile : PhaseEvaluator.PhaseProfile.values()) {
+            if (profile.name().equalsIgnoreCase(arg)) {
+                return new CompiledPhaseEvaluator(profile);
+            }
+        }
+        return CompiledPhaseEvaluator.fromFile(Paths.get(arg));
+    }
+
+    private static List<Path> sampleFiles(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(SampleShard.EXTENSION))
+                        .sorted()
+                        .toList();
+        }
+    }
+
+    // Recherche dichotomique (section dorée) de K sur [1e-3, 1], en échelle logarithmique
+    private static double fitK(List<Slice> slices, double[] params, int openingThreshold, int midThreshold) {
+        double lo = Math.log(1e-3);
+        double hi = Math.log(1.0);
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        double a = hi - ratio * (hi - lo);
+        double b = lo + ratio * (hi - lo);
+        double fa = pass(slices, params, Math.exp(a), openingThreshold, midThreshold)[TuningFeatures.NUM_PARAMS];
+        double fb = pass(slices, params, Math.exp(b), openingThreshold, midThreshold)[TuningFeatures.NUM_PARAMS];
+        for (int i = 0; i < 30; i++) {
+            if (fa < fb) {
+                hi = b;
+                b = a;
+                fb = fa;
+                a = hi - ratio * (hi - lo);
+                fa = pass(slices, params, Math.exp(a), openingThreshold, midThreshold)[TuningFeatures.NUM_PARAMS];
+            } else {
+                lo = a;
+                a = b;
+                fa = fb;
+                b = lo + ratio * (hi - lo);
+                fb = pass(slices, params, Math.exp(b), openingThreshold, midThreshold)[TuningFeatures.NUM_PARAMS];
+            }
+        }
+        return Math.exp((lo + hi) / 2);
+    }
+
+    // Renvoie {gradient moyen (NUM_PARAMS valeurs), erreur moyenne}
+    private static double[] pass(List<Slice> slices, double[] params, double k, int openingThreshold, int midThreshold) {
+        double[] sum = ForkJoinPool.commonPool().invoke(
+                new GradientTask(slices, 0, slices.size(), params, k, openingThreshold, midThreshold));
+        long count = (long) sum[TuningFeatures.NUM_PARAMS + 1];
+        double[] mean = new double[TuningFeatures.NUM_PARAMS + 1];
+        for (int j = 0; j <= TuningFeatures.NUM_PARAMS; j++) {
+            mean[j] = sum[j] / count;
+        }
+        return mean;
+    }
+
+    // Somme des gradients et des erreurs sur les tranches [lo, hi[, puis nombre d'échantillons
+    private static final class GradientTask extends RecursiveTask<double[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Slice> slices;
+        private final int lo;
+        private final int hi;
+        private final double[] params;
+        private final double k;
+        private final int openingThreshold;
+        private final int midThreshold;
+
+        GradientTask(List<Slice> slices, int lo, int hi, double[] params, double k,
+                     int openingThreshold, int midThreshold) {
+            this.slices = slices;
+            this.lo = lo;
+            this.hi = hi;
+            this.params = params;
+            this.k = k;
+            this.openingThreshold = openingThreshold;
+            this.midThreshold = midThreshold;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                GradientTask left = new GradientTask(slices, lo, mid, params, k, openingThreshold, midThreshold);
+                left.fork();
+                double[] right = new GradientTask(slices, mid, hi, params, k, openingThreshold, midThreshold).compute();
+                double[] sum = left.join();
+                for (int j = 0; j < sum.length; j++) {
+                    sum[j] += right[j];
+                }
+                return sum;
+            }
+
+            double[] sum = new double[TuningFeatures.NUM_PARAMS + 2];
+            int[] f = new int[TuningFeatures.COUNT];
+            Slice slice = slices.get(lo);
+            for (int s = slice.from(); s < slice.to(); s++) {
+                TuningFeatures.extract(slice.shard(), s, f);
+                int phase = TuningFeatures.phase(f[TuningFeatures.TOTAL], openingThreshold, midThreshold);
+                double score = TuningFeatures.linearScore(params, phase, f);
+                boolean clamped = score < 0.0 || score > 100.0;
+                score = Math.max(0.0, Math.min(100.0, score));
+
+                double p = 1.0 / (1.0 + Math.exp(-k * (score - 50.0)));
+                double err = p - slice.shard().result(s) / 2.0;
+                sum[TuningFeatures.NUM_PARAMS] += err * err;
+                if (!clamped) {
+                    double g = 2.0 * err * p * (1.0 - p) * k;
+                    int base = phase * TuningFeatures.PARAMS_PER_PHASE;
+                    sum[base] += g * f[TuningFeatures.CAPTURED];
+                    sum[base + 1] += g * f[TuningFeatures.SEEDS];
+                    sum[base + 2] += g * f[TuningFeatures.MOBILITY];
+                }
+            }
+            sum[TuningFeatures.NUM_PARAMS + 1] = slice.to() - slice.from();
+            return sum;
+        }
+    }
+}
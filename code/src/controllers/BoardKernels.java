@@ -0,0 +1,66 @@
+package controllers;
+
+/**
+ * Calculs élémentaires sur les 16 trous du plateau, passés sous forme de tableaux
+ * de 16 entiers (index 0-based, le joueur d'index p possède les trous de parité p).
+ *
+ * Deux implémentations :
+ *   - ScalarBoardKernels : boucles simples, toujours disponible ;
+ *   - VectorBoardKernels : API Vector (jdk.incubator.vector), source séparée dans
+ *     code/src-vector, chargée par réflexion si le module est présent au lancement
+ *     (--add-modules jdk.incubator.vector).
+ * Les deux donnent exactement les mêmes résultats.
+ */
+public interface BoardKernels {
+
+    int NUM_HOLES = 16;
+
+    /** Somme des valeurs des trous de parité parity. */
+    int sideSum(int[] values, int parity);
+
+    /** Masque des trous dont le total vaut 2 ou 3 (bit i = trou i) : candidats à la capture. */
+    int captureMask(int[] totals);
+
+    /**
+     * Mobilité approximative du camp parity : pour chaque trou, un coup par couleur
+     * présente et un coup transparent par couleur (même compte que Evaluator).
+     */
+    int mobility(int[] red, int[] blue, int[] transparent, int parity);
+
+    /** Nom affiché (diagnostic). */
+    String name();
+
+    /**
+     * Trous capturés par un semis qui se termine en lastIndex : on remonte tant que
+     * les trous sont dans le masque, comme RuleController.applyCaptures (un trou
+     * vidé n'est jamais repris, d'où l'arrêt après un tour complet).
+     */
+    static int captureChain(int captureMask, int lastIndex) {
+        int chain = 0;
+        int i = lastIndex;
+        while ((captureMask & (1 << i)) != 0 && (chain & (1 << i)) == 0) {
+            chain |= 1 << i;
+            i = (i - 1) & (NUM_HOLES - 1);
+        }
+        return chain;
+    }
+
+    /**
+     * Implémentation vectorielle si elle est compilée, que le module
+     * jdk.incubator.vector est chargé et que -Dkernels.scalar n'est pas positionné ;
+     * sinon implémentation scalaire.
+     */
+    static BoardKernels best() {
+        if (!Boolean.getBoolean("kernels.scalar")
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                Object kernels = Class.forName("controllers.VectorBoardKernels")
+                        .getDeclaredConstructor().newInstance();
+                return (BoardKernels) kernels;
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // classe absente ou espèce vectorielle inutilisable : repli scalaire
+            }
+        }
+        return new ScalarBoardKernels();
+    }
+}
@@ -0,0 +1,98 @@
+package controllers;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import models.Board;
+import models.Player;
+import models.PositionHash;
+
+/**
+ * Cache d'évaluation devant n'importe quel Evaluator.
+ *
+ * Table de taille fixe (puissance de deux), avec perte : une nouvelle entrée écrase
+ * l'ancienne au même indice. Chaque entrée tient dans un seul long :
+ *   bits 7..63 = bits de poids fort de la clé (vérification)
+ *   bits 0..6  = score + 1 (0 = case vide)
+ * Lecture et écriture sont atomiques (opaque), la table peut donc être partagée
+ * entre plusieurs threads de recherche sans verrou.
+ *
+ * La clé est PositionHash vue du joueur évalué : l'évaluateur enveloppé doit être
+ * symétrique par rotation du plateau / échange des joueurs, ce qui est le cas de
+ * tous les évaluateurs du projet (ils ne regardent que ownsHoleIndex).
+ */
+public class CachedEvaluator extends Evaluator {
+
+    private static final long SCORE_MASK = 0x7FL;
+
+    private final Evaluator inner;
+    private final AtomicLongArray table;
+    private final int indexMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // 2^20 entrées = 8 Mo
+    public CachedEvaluator(Evaluator inner) {
+        this(inner, 20);
+    }
+
+    public CachedEvaluator(Evaluator inner, int log2Size) {
+        if (log2Size < 1 || log2Size > 30) {
+            throw new IllegalArgumentException("log2Size must be in [1, 30]: " + log2Size);
+        }
+        this.inner = inner;
+        this.table = new AtomicLongArray(1 << log2Size);
+        this.indexMask = (1 << log2Size) - 1;
+    }
+
+    // evaluate(board, players, id_idx) passe par ici avec une fenêtre infinie.
+    // En cas d'absence, on calcule le score exact (fenêtre infinie, sans sortie
+    // anticipée) pour pouvoir le mettre en cache quelle que soit la fenêtre : la
+    // plupart des feuilles tombent hors de ]alpha, beta[, et une borne ne serait
+    // pas réutilisable. Le score exact reste une réponse valable pour l'appelant.
+    @Override
+    public int evaluate(Board board, Player[] players, int id_idx, double alpha, double beta) {
+        long key = PositionHash.of(board, players, id_idx);
+        int index = (int) key & indexMask;
+        long check = key & ~SCORE_MASK;
+
+        long entry = table.getOpaque(index);
+        if (entry != 0L && (entry & ~SCORE_MASK) == check) {
+            hits.increment();
+            return (int) (entry & SCORE_MASK) - 1;
+        }
+
+        misses.increment();
+        int score = inner.evaluate(board, players, id_idx);
+        if (score >= 0 && score < SCORE_MASK) {
+            table.setOpaque(index, check | (score + 1));
+        }
+        return score;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public int capacity() {
+        return table.length();
+    }
+
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.setOpaque(i, 0L);
+        }
+        hits.reset();
+        misses.reset();
+    }
+}
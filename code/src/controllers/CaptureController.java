@@ -1,4 +1,50 @@
 package controllers;
 
+import models.Board;
+import models.Hole;
+import models.Player;
+
+/**
+ * Détection des captures par masque : les trous à 2 ou 3 graines sont repérés en
+ * une passe (BoardKernels.captureMask, vectorielle si possible), puis la chaîne
+ * capturée est suivie sur le masque de bits.
+ *
+ * applyCaptures a exactement le même effet que RuleController.applyCaptures.
+ */
 public class CaptureController {
+
+    private final BoardKernels kernels;
+
+    public CaptureController() {
+        this(BoardKernels.best());
+    }
+
+    public CaptureController(BoardKernels kernels) {
+        this.kernels = kernels;
+    }
+
+    /** Masque des trous actuellement à 2 ou 3 graines (bit i = trou i). */
+    public int captureCandidates(Board board) {
+        int[] totals = new int[BoardKernels.NUM_HOLES];
+        for (int i = 0; i < BoardKernels.NUM_HOLES; i++) {
+            totals[i] = board.getHole(i).total();
+        }
+        return kernels.captureMask(totals);
+    }
+
+    /** Trous que capturerait un semis terminé en lastIndex, sans modifier le plateau. */
+    public int capturedHoles(Board board, int lastIndex) {
+        return BoardKernels.captureChain(captureCandidates(board), lastIndex);
+    }
+
+    public void applyCaptures(Board board, Player current, int lastIndex) {
+        int chain = capturedHoles(board, lastIndex);
+        while (chain != 0) {
+            int i = Integer.numberOfTrailingZeros(chain);
+            chain &= chain - 1;
+            Hole h = board.getHole(i);
+            current.addCaptured(h.total());
+            h.clear();
+        }
+    }
 }
@@ -0,0 +1,257 @@
+package controllers;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import models.Board;
+import models.Hole;
+import models.Player;
+
+/**
+ * Version « compilée » de PhaseEvaluator.
+ *
+ * Les poids de chaque phase sont précalculés dans des tableaux plats indexés par le
+ * nombre total de graines sur le plateau (0 à 96). L'évaluation se fait en un seul
+ * passage sur les trous, sans Evaluator imbriqué ni appel virtuel supplémentaire.
+ *
+ * Sans interpolation (interpolationWidth = 0), les scores sont identiques à ceux de
+ * PhaseEvaluator pour le même profil. Avec interpolation, le vecteur de poids pour
+ * un total t est la moyenne des poids de phase sur [t - largeur, t + largeur], ce qui
+ * lisse le passage d'une phase à l'autre.
+ *
+ * Les profils peuvent aussi être chargés depuis un fichier .properties :
+ *   openingThreshold=70
+ *   midThreshold=40
+ *   interpolationWidth=0
+ *   opening.capturedWeight=0.8   (idem pour boardWeight, scale, famineWeight,
+ *   ...                           mobilityWeight, et pour les préfixes mid. / end.)
+ */
+public final class CompiledPhaseEvaluator extends Evaluator {
+
+    private static final int MAX_SEEDS = 96;
+
+    /** Poids d'une phase (mêmes termes que Evaluator). */
+    public record PhaseWeights(double capturedWeight,
+                               double boardWeight,
+                               double scale,
+                               double famineWeight,
+                               double mobilityWeight) {
+
+        static PhaseWeights of(Evaluator e) {
+            return new PhaseWeights(e.getCapturedWeight(), e.getBoardWeight(), e.getScale(),
+                                    e.getFamineWeight(), MOBILITY_WEIGHT);
+        }
+    }
+
+    private final PhaseWeights opening;
+    private final PhaseWeights mid;
+    private final PhaseWeights end;
+    private final int openingThreshold;
+    private final int midThreshold;
+    private final int interpolationWidth;
+
+    // Poids indexés par le nombre total de graines
+    private final double[] capturedWeights = new double[MAX_SEEDS + 1];
+    private final double[] boardWeights = new double[MAX_SEEDS + 1];
+    private final double[] famineWeights = new double[MAX_SEEDS + 1];
+    private final double[] mobilityWeights = new double[MAX_SEEDS + 1];
+    private final double[] scales = new double[MAX_SEEDS + 1];
+
+    public CompiledPhaseEvaluator(PhaseEvaluator.PhaseProfile profile) {
+        this(profile, 0);
+    }
+
+    public CompiledPhaseEvaluator(PhaseEvaluator.PhaseProfile profile, int interpolationWidth) {
+        this(new PhaseEvaluator(profile), interpolationWidth);
+    }
+
+    public CompiledPhaseEvaluator(PhaseEvaluator source, int interpolationWidth) {
+        this(PhaseWeights.of(source.getOpeningEvaluator()),
+             PhaseWeights.of(source.getMidEvaluator()),
+             PhaseWeights.of(source.getEndEvaluator()),
+             source.getOpeningThreshold(),
+             source.getMidThreshold(),
+             interpolationWidth);
+    }
+
+    public CompiledPhaseEvaluator(PhaseWeights opening,
+                                  PhaseWeights mid,
+                                  PhaseWeights end,
+                                  int openingThreshold,
+                                  int midThreshold,
+                                  int interpolationWidth) {
+        this.opening = opening;
+        this.mid = mid;
+        this.end = end;
+        this.openingThreshold = openingThreshold;
+        this.midThreshold = midThreshold;
+        this.interpolationWidth = Math.max(0, interpolationWidth);
+
+        for (int total = 0; total <= MAX_SEEDS; total++) {
+            if (this.interpolationWidth == 0) {
+                PhaseWeights w = phaseFor(total);
+                capturedWeights[total] = w.capturedWeight();
+                boardWeights[total] = w.boardWeight();
+                famineWeights[total] = w.famineWeight();
+                mobilityWeights[total] = w.mobilityWeight();
+                scales[total] = w.scale();
+            } else {
+                int from = Math.max(0, total - this.interpolationWidth);
+                int to = Math.min(MAX_SEEDS, total + this.interpolationWidth);
+                int n = to - from + 1;
+                for (int t = from; t <= to; t++) {
+                    PhaseWeights w = phaseFor(t);
+                    capturedWeights[total] += w.capturedWeight() / n;
+                    boardWeights[total] += w.boardWeight() / n;
+                    famineWeights[total] += w.famineWeight() / n;
+                    mobilityWeights[total] += w.mobilityWeight() / n;
+                    scales[total] += w.scale() / n;
+                }
+            }
+        }
+    }
+
+    // Même règle de sélection que PhaseEvaluator.evaluate
+    private PhaseWeights phaseFor(int total) {
+        if (total > openingThreshold) {
+            return opening;
+        } else if (total > midThreshold) {
+            return mid;
+        } else {
+            return end;
+        }
+    }
+
+    @Override
+    public int evaluate(Board board, Player[] players, int id_idx) {
+        // Un seul passage : total, graines de chaque côté et mobilité.
+        // Le joueur d'index p possède les trous d'index 0-based de parité p
+        // (voir Player.ownsHoleIndex).
+        int total = 0;
+        int myBoardSeeds = 0;
+        int oppBoardSeeds = 0;
+        int myMobility = 0;
+        int oppMobility = 0;
+        int numHoles = board.getNumHoles();
+        for (int i = 0; i < numHoles; i++) {
+            Hole h = board.getHole(i);
+            int red = h.getRed();
+            int blue = h.getBlue();
+            int transparent = h.getTransparent();
+            int seeds = red + blue + transparent;
+
+            int moves = 0;
+            if (red > 0) moves++;
+            if (blue > 0) moves++;
+            if (transparent + red > 0) moves++;
+            if (transparent + blue > 0) moves++;
+
+            total += seeds;
+            if ((i & 1) == id_idx) {
+                myBoardSeeds += seeds;
+                myMobility += moves;
+            } else {
+                oppBoardSeeds += seeds;
+                oppMobility += moves;
+            }
+        }
+
+        double capturedWeight = capturedWeights[total];
+        double boardWeight = boardWeights[total];
+
+        // Même enchaînement d'opérations que Evaluator, pour des scores identiques
+        double myMaterial = capturedWeight * players[id_idx].getCaptured() + boardWeight * myBoardSeeds;
+        double oppMaterial = capturedWeight * players[1 - id_idx].getCaptured() + boardWeight * oppBoardSeeds;
+        double diff = myMaterial - oppMaterial;
+        diff += famineWeights[total] * (double) (myBoardSeeds - oppBoardSeeds);
+        diff += mobilityWeights[total] * (double) (myMobility - oppMobility);
+
+        double rawScore = 50.0 + scales[total] * diff;
+        if (rawScore < 0.0) rawScore = 0.0;
+        if (rawScore > 100.0) rawScore = 100.0;
+        return (int) Math.round(rawScore);
+    }
+
+    // Tout est calculé en un passage : pas d'étape à sauter, le score exact est
+    // toujours une réponse valable pour la fenêtre.
+    @Override
+    public int evaluate(Board board, Player[] players, int id_idx, double alpha, double beta) {
+        return evaluate(board, players, id_idx);
+    }
+
+    public PhaseWeights getOpening() {
+        return opening;
+    }
+
+    public PhaseWeights getMid() {
+        return mid;
+    }
+
+    public PhaseWeights getEnd() {
+        return end;
+    }
+
+    public int getOpeningThreshold() {
+        return openingThreshold;
+    }
+
+    public int getMidThreshold() {
+        return midThreshold;
+    }
+
+    public int getInterpolationWidth() {
+        return interpolationWidth;
+    }
+
+    public static CompiledPhaseEvaluator fromFile(Path path) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(path)) {
+            props.load(in);
+        }
+        return new CompiledPhaseEvaluator(
+                readWeights(props, "opening"),
+                readWeights(props, "mid"),
+                readWeights(props, "end"),
+                Integer.parseInt(props.getProperty("openingThreshold", "70").trim()),
+                Integer.parseInt(props.getProperty("midThreshold", "40").trim()),
+                Integer.parseInt(props.getProperty("interpolationWidth", "0").trim()));
+    }
+
+    public void writeProfile(Path path, String comment) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("openingThreshold", Integer.toString(openingThreshold));
+        props.setProperty("midThreshold", Integer.toString(midThreshold));
+        props.setProperty("interpolationWidth", Integer.toString(interpolationWidth));
+        writeWeights(props, "opening", opening);
+        writeWeights(props, "mid", mid);
+        writeWeights(props, "end", end);
+        try (Writer out = Files.newBufferedWriter(path)) {
+            props.store(out, comment);
+        }
+    }
+
+    private static PhaseWeights readWeights(Properties props, String prefix) {
+        return new PhaseWeights(
+                readDouble(props, prefix + ".capturedWeight", 1.0),
+                readDouble(props, prefix + ".boardWeight", 0.7),
+                readDouble(props, prefix + ".scale", 0.5),
+                readDouble(props, prefix + ".famineWeight", 0.3),
+                readDouble(props, prefix + ".mobilityWeight", MOBILITY_WEIGHT));
+    }
+
+    private static double readDouble(Properties props, String key, double defaultValue) {
+        String value = props.getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    private static void writeWeights(Properties props, String prefix, PhaseWeights w) {
+        props.setProperty(prefix + ".capturedWeight", Double.toString(w.capturedWeight()));
+        props.setProperty(prefix + ".boardWeight", Double.toString(w.boardWeight()));
+        props.setProperty(prefix + ".scale", Double.toString(w.scale()));
+        props.setProperty(prefix + ".famineWeight", Double.toString(w.famineWeight()));
+        props.setProperty(prefix + ".mobilityWeight", Double.toString(w.mobilityWeight()));
+    }
+}
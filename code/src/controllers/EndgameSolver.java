@@ -0,0 +1,170 @@
+package controllers;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import models.Board;
+import models.Player;
+import models.PositionHash;
+
+/**
+ * Solveur exact gagné / nul / perdu pour les fins de partie avec peu de graines.
+ *
+ * Les résultats sont toujours exprimés pour le joueur au trait. Seuls les résultats
+ * prouvés sont mis en cache : une branche coupée par la limite de coups, par une
+ * répétition ou par le temps renvoie UNKNOWN et n'est pas mémorisée. Le cache
+ * survit d'un coup à l'autre (il ne dépend que de la position).
+ *
+ * La limite des 400 coups de l'arbitre n'est pas prise en compte.
+ */
+public class EndgameSolver {
+
+    public static final int LOSS = -1;
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+    public static final int UNKNOWN = 2;
+
+    // Au-delà, on vide le cache pour ne pas faire exploser la mémoire
+    private static final int MAX_CACHE_SIZE = 2_000_000;
+
+    private final int maxPlies;
+    private final Map<Long, Integer> solved = new HashMap<>();
+    private final RuleController ruleController = new RuleController();
+
+    private long deadlineNanos;
+    private int currentPlyLimit;
+
+    public EndgameSolver(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Résout chaque coup racine (résultat du point de vue du joueur qui joue le coup).
+     * Approfondissement itératif sur la limite de demi-coups jusqu'à ce que
+     * tous les coups soient prouvés, qu'un coup gagnant soit trouvé ou que
+     * la deadline (0 = pas de limite) ou la limite plyCap soit atteinte.
+     */
+    int[] solveRoot(Board board,
+                    Player[] players,
+                    int currentPlayerIndex,
+                    List<MinimaxPlayerController.MoveOption> moves,
+                    int plyCap,
+                    long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        if (solved.size() > MAX_CACHE_SIZE) {
+            solved.clear();
+        }
+
+        int[] results = new int[moves.size()];
+        Arrays.fill(results, UNKNOWN);
+
+        int lastPlyLimit = Math.min(maxPlies, plyCap);
+        for (int plyLimit = 2; plyLimit <= lastPlyLimit; plyLimit += 2) {
+            currentPlyLimit = plyLimit;
+            boolean allKnown = true;
+
+            for (int i = 0; i < moves.size(); i++) {
+                if (results[i] != UNKNOWN) {
+                    continue;
+                }
+                if (isTimeUp()) {
+                    return results;
+                }
+                MinimaxPlayerController.NodeState next =
+                    MinimaxPlayerController.applyMove(board, players, currentPlayerIndex, moves.get(i));
+                if (next == null) {
+                    results[i] = LOSS;
+                    continue;
+                }
+                int r = solve(next.board, next.players, next.currentPlayerIndex, 1, new HashSet<>());
+                results[i] = (r == UNKNOWN) ? UNKNOWN : -r;
+                if (results[i] == WIN) {
+                    return results;
+                }
+                if (results[i] == UNKNOWN) {
+                    allKnown = false;
+                }
+            }
+
+            if (allKnown) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    public int cacheSize() {
+        return solved.size();
+    }
+
+    public void clearCache() {
+        solved.clear();
+    }
+
+    // Negamax gagné/nul/perdu pour le joueur au trait.
+    private int solve(Board board, Player[] players, int currentPlayerIndex, int ply, Set<Long> path) {
+        if (ruleController.isGameOver(board, players)) {
+            return terminalResult(players, currentPlayerIndex);
+        }
+
+        long key = PositionHash.of(board, players, currentPlayerIndex);
+        Integer cached = solved.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (ply >= currentPlyLimit || path.contains(key) || isTimeUp()) {
+            return UNKNOWN;
+        }
+
+        List<MinimaxPlayerController.MoveOption> moves =
+            MinimaxPlayerController.generateLegalMoves(board, players[currentPlayerIndex]);
+        if (moves.isEmpty()) {
+            int r = terminalResult(players, currentPlayerIndex);
+            solved.put(key, r);
+            return r;
+        }
+
+        path.add(key);
+        int best = LOSS;
+        boolean unknown = false;
+        for (MinimaxPlayerController.MoveOption move : moves) {
+            MinimaxPlayerController.NodeState next =
+                MinimaxPlayerController.applyMove(board, players, currentPlayerIndex, move);
+            if (next == null) continue;
+
+            int r = solve(next.board, next.players, next.currentPlayerIndex, ply + 1, path);
+            if (r == UNKNOWN) {
+                unknown = true;
+                continue;
+            }
+            if (-r > best) {
+                best = -r;
+                if (best == WIN) {
+                    break;
+                }
+            }
+        }
+        path.remove(key);
+
+        // Un coup gagnant suffit ; sinon il faut que tous les coups soient prouvés.
+        if (best != WIN && unknown) {
+            return UNKNOWN;
+        }
+        solved.put(key, best);
+        return best;
+    }
+
+    private int terminalResult(Player[] players, int currentPlayerIndex) {
+        int mine = players[currentPlayerIndex].getCaptured();
+        int theirs = players[1 - currentPlayerIndex].getCaptured();
+        return Integer.compare(mine, theirs);
+    }
+
+    private boolean isTimeUp() {
+        return deadlineNanos > 0L && System.nanoTime() > deadlineNanos;
+    }
+}
@@ -19,7 +19,9 @@ public class Evaluator {
     private final double famineWeight;     // avantage à avoir plus de graines côté joueur (pression de famine)
 
     // Poids fixe pour la mobilité (nombre approximatif de coups possibles)
-    private static final double MOBILITY_WEIGHT = 0.2;
+    static final double MOBILITY_WEIGHT = 0.2;
+    // Écart de mobilité maximal : 8 trous * 4 types de coups
+    private static final int MAX_MOBILITY = 32;
 
     // Constructeur par défaut : comportement initial + terme de famine modéré
     public Evaluator() {
@@ -42,7 +44,39 @@ public class Evaluator {
         this.famineWeight = famineWeight;
     }
 
+    public double getCapturedWeight() {
+        return capturedWeight;
+    }
+
+    public double getBoardWeight() {
+        return boardWeight;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public double getFamineWeight() {
+        return famineWeight;
+    }
+
     public int evaluate(Board board, Player[] players, int id_idx) {
+        return evaluate(board, players, id_idx, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Évaluation par étapes dans la fenêtre ]alpha, beta[ de la recherche.
+     *
+     * Les termes bon marché (captures, graines sur le plateau, famine) sont calculés
+     * d'abord. Si, même avec la plus grande contribution possible des termes suivants
+     * (mobilité), le score sort de la fenêtre, on s'arrête et on renvoie une borne :
+     * une borne inférieure >= beta ou une borne supérieure <= alpha. Un résultat
+     * strictement dans la fenêtre est toujours exactement evaluate(board, players, id_idx).
+     *
+     * Une sous-classe qui redéfinit evaluate(Board, Player[], int) doit aussi redéfinir
+     * cette méthode.
+     */
+    public int evaluate(Board board, Player[] players, int id_idx, double alpha, double beta) {
         Player me = players[id_idx];
         Player opp = players[1 - id_idx];
 
@@ -71,6 +105,19 @@ public class Evaluator {
 
         diff += famineWeight * famineDiff;
 
+        // Sortie anticipée : la mobilité ne peut déplacer le score que de
+        // |scale| * MOBILITY_WEIGHT * MAX_MOBILITY (+1 pour l'arrondi).
+        double partial = 50.0 + scale * diff;
+        double margin = Math.abs(scale) * MOBILITY_WEIGHT * MAX_MOBILITY + 1.0;
+        int lowerBound = (int) Math.min(Math.floor(partial - margin), 100.0);
+        if (lowerBound >= beta) {
+            return lowerBound;
+        }
+        int upperBound = (int) Math.max(Math.ceil(partial + margin), 0.0);
+        if (upperBound <= alpha) {
+            return upperBound;
+        }
+
         // 4. Mobilité approximative : nombre de coups possibles pour chacun
         int myMobility = approximateMoveCount(board, me);
         int oppMobility = approximateMoveCount(board, opp);
@@ -0,0 +1,272 @@
+package controllers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Fabrique d'évaluateurs spécialisés : pour une configuration de poids donnée, on
+ * génère le source d'une sous-classe de Evaluator où les poids sont des constantes
+ * littérales, on le compile en mémoire (javax.tools) et on le charge comme classe
+ * cachée (Lookup.defineHiddenClass). Le JIT peut alors replier les constantes, et
+ * les termes de poids nul ne sont pas générés du tout.
+ *
+ * Le calcul généré suit exactement l'enchaînement d'opérations de
+ * CompiledPhaseEvaluator : les scores sont identiques à ceux de Evaluator /
+ * PhaseEvaluator pour les mêmes poids.
+ *
+ * Sans compilateur (JRE seule) ou en cas d'échec de génération, la fabrique
+ * renvoie l'évaluateur à champs équivalent. La compilation coûte quelques
+ * centaines de millisecondes : les classes générées sont mises en cache par
+ * configuration.
+ */
+public final class EvaluatorFactory {
+
+    private static final String CLASS_NAME = "GeneratedEvaluator";
+    private static final String PACKAGE = EvaluatorFactory.class.getPackageName();
+
+    private static final Map<String, MethodHandle> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    private EvaluatorFactory() {
+    }
+
+    /** Évaluateur à une seule phase (mêmes poids que new Evaluator(...)). */
+    public static Evaluator create(double capturedWeight, double boardWeight, double scale, double famineWeight) {
+        CompiledPhaseEvaluator.PhaseWeights w = new CompiledPhaseEvaluator.PhaseWeights(
+                capturedWeight, boardWeight, scale, famineWeight, Evaluator.MOBILITY_WEIGHT);
+        MethodHandle ctor = constructorFor(w, w, w, 0, 0);
+        if (ctor == null) {
+            return new Evaluator(capturedWeight, boardWeight, scale, famineWeight);
+        }
+        return instantiate(ctor);
+    }
+
+    public static Evaluator create(PhaseEvaluator.PhaseProfile profile) {
+        return create(new CompiledPhaseEvaluator(profile));
+    }
+
+    /** Évaluateur par phases, mêmes scores que source (sans interpolation). */
+    public static Evaluator create(CompiledPhaseEvaluator source) {
+        if (source.getInterpolationWidth() != 0) {
+            return source;
+        }
+        MethodHandle ctor = constructorFor(source.getOpening(), source.getMid(), source.getEnd(),
+                                           source.getOpeningThreshold(), source.getMidThreshold());
+        return ctor == null ? source : instantiate(ctor);
+    }
+
+    /** Vrai si un compilateur Java est disponible pour générer les classes. */
+    public static boolean isAvailable() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    private static Evaluator instantiate(MethodHandle ctor) {
+        try {
+            return (Evaluator) ctor.invoke();
+        } catch (Throwable t) {
+            throw new IllegalStateException("Cannot instantiate generated evaluator", t);
+        }
+    }
+
+    // null si la génération est impossible
+    private static MethodHandle constructorFor(CompiledPhaseEvaluator.PhaseWeights opening,
+                                               CompiledPhaseEvaluator.PhaseWeights mid,
+                                               CompiledPhaseEvaluator.PhaseWeights end,
+                                               int openingThreshold,
+                                               int midThreshold) {
+        String source = generateSource(opening, mid, end, openingThreshold, midThreshold);
+        MethodHandle cached = CONSTRUCTORS.get(source);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            byte[] bytes = compile(source);
+            if (bytes == null) {
+                return null;
+            }
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            MethodHandle ctor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class));
+            CONSTRUCTORS.putIfAbsent(source, ctor);
+            return ctor;
+        } catch (ReflectiveOperationException | LinkageError | IllegalStateException | UncheckedIOException e) {
+            return null;
+        }
+    }
+
+    // ----- génération du source -----
+
+    static String generateSource(CompiledPhaseEvaluator.PhaseWeights opening,
+                                 CompiledPhaseEvaluator.PhaseWeights mid,
+                                 CompiledPhaseEvaluator.PhaseWeights end,
+                                 int openingThreshold,
+                                 int midThreshold) {
+        StringBuilder src = new StringBuilder();
+        src.append("package ").append(PACKAGE).append(";\n\n")
+           .append("import models.Board;\n")
+           .append("import models.Hole;\n")
+           .append("import models.Player;\n\n")
+           .append("final class ").append(CLASS_NAME).append(" extends Evaluator {\n\n")
+           .append("    public ").append(CLASS_NAME).append("() {\n")
+           .append("        super(").append(literal(opening.capturedWeight())).append(", ")
+           .append(literal(opening.boardWeight())).append(", ")
+           .append(literal(opening.scale())).append(", ")
+           .append(literal(opening.famineWeight())).append(");\n")
+           .append("    }\n\n")
+           .append("    @Override\n")
+           .append("    public int evaluate(Board board, Player[] players, int id_idx, double alpha, double beta) {\n")
+           .append("        return evaluate(board, players, id_idx);\n")
+           .append("    }\n\n")
+           .append("    @Override\n")
+           .append("    public int evaluate(Board board, Player[] players, int id_idx) {\n");
+
+        boolean needsMobility = opening.mobilityWeight() != 0.0 || mid.mobilityWeight() != 0.0
+                || end.mobilityWeight() != 0.0;
+        boolean singlePhase = opening.equals(mid) && mid.equals(end);
+
+        src.append("        int total = 0;\n")
+           .append("        int myBoardSeeds = 0;\n")
+           .append("        int oppBoardSeeds = 0;\n");
+        if (needsMobility) {
+            src.append("        int myMobility = 0;\n")
+               .append("        int oppMobility = 0;\n");
+        }
+        src.append("        for (int i = 0; i < 16; i++) {\n")
+           .append("            Hole h = board.getHole(i);\n")
+           .append("            int red = h.getRed();\n")
+           .append("            int blue = h.getBlue();\n")
+           .append("            int transparent = h.getTransparent();\n")
+           .append("            int seeds = red + blue + transparent;\n");
+        if (needsMobility) {
+            src.append("            int moves = (red > 0 ? 1 : 0) + (blue > 0 ? 1 : 0)\n")
+               .append("                    + (transparent + red > 0 ? 1 : 0) + (transparent + blue > 0 ? 1 : 0);\n");
+        }
+        src.append("            total += seeds;\n")
+           .append("            if ((i & 1) == id_idx) {\n")
+           .append("                myBoardSeeds += seeds;\n");
+        if (needsMobility) {
+            src.append("                myMobility += moves;\n");
+        }
+        src.append("            } else {\n")
+           .append("                oppBoardSeeds += seeds;\n");
+        if (needsMobility) {
+            src.append("                oppMobility += moves;\n");
+        }
+        src.append("            }\n")
+           .append("        }\n")
+           .append("        int myCaptured = players[id_idx].getCaptured();\n")
+           .append("        int oppCaptured = players[1 - id_idx].getCaptured();\n");
+
+        if (singlePhase) {
+            appendPhase(src, end, needsMobility, "        ");
+        } else {
+            src.append("        if (total > ").append(openingThreshold).append(") {\n");
+            appendPhase(src, opening, needsMobility, "            ");
+            src.append("        } else if (total > ").append(midThreshold).append(") {\n");
+            appendPhase(src, mid, needsMobility, "            ");
+            src.append("        } else {\n");
+            appendPhase(src, end, needsMobility, "            ");
+            src.append("        }\n");
+        }
+        src.append("    }\n")
+           .append("}\n");
+        return src.toString();
+    }
+
+    // Même enchaînement que CompiledPhaseEvaluator.evaluate, sans les termes de poids nul
+    private static void appendPhase(StringBuilder src,
+                                    CompiledPhaseEvaluator.PhaseWeights w,
+                                    boolean needsMobility,
+                                    String indent) {
+        String cw = literal(w.capturedWeight());
+        String bw = literal(w.boardWeight());
+        src.append(indent).append("double myMaterial = ").append(cw).append(" * myCaptured + ")
+           .append(bw).append(" * myBoardSeeds;\n")
+           .append(indent).append("double oppMaterial = ").append(cw).append(" * oppCaptured + ")
+           .append(bw).append(" * oppBoardSeeds;\n")
+           .append(indent).append("double diff = myMaterial - oppMaterial;\n");
+        if (w.famineWeight() != 0.0) {
+            src.append(indent).append("diff += ").append(literal(w.famineWeight()))
+               .append(" * (double) (myBoardSeeds - oppBoardSeeds);\n");
+        }
+        if (needsMobility && w.mobilityWeight() != 0.0) {
+            src.append(indent).append("diff += ").append(literal(w.mobilityWeight()))
+               .append(" * (double) (myMobility - oppMobility);\n");
+        }
+        src.append(indent).append("double rawScore = 50.0 + ").append(literal(w.scale())).append(" * diff;\n")
+           .append(indent).append("if (rawScore < 0.0) rawScore = 0.0;\n")
+           .append(indent).append("if (rawScore > 100.0) rawScore = 100.0;\n")
+           .append(indent).append("return (int) Math.round(rawScore);\n");
+    }
+
+    // Littéral double exact (Double.toString est réversible) ; parenthèses pour les négatifs
+    private static String literal(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Weight must be finite: " + value);
+        }
+        String s = Double.toString(value).toLowerCase(Locale.ROOT);
+        return value < 0.0 || (value == 0.0 && 1.0 / value < 0.0) ? "(" + s + ")" : s;
+    }
+
+    // ----- compilation en mémoire -----
+
+    private static byte[] compile(String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return null;
+        }
+        String binaryName = PACKAGE + "." + CLASS_NAME;
+        JavaFileObject file = new SimpleJavaFileObject(
+                URI.create("string:///" + binaryName.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StringWriter errors = new StringWriter();
+        List<String> options = List.of("-classpath", System.getProperty("java.class.path"), "-g:none");
+        boolean ok;
+        try (StandardJavaFileManager standard = compiler.getStandardFileManager(null, Locale.ROOT, null)) {
+            JavaFileManager manager = new ForwardingJavaFileManager<>(standard) {
+                @Override
+                public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                           JavaFileObject.Kind kind, FileObject sibling) {
+                    return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension),
+                                                    kind) {
+                        @Override
+                        public OutputStream openOutputStream() {
+                            return bytes;
+                        }
+                    };
+                }
+            };
+            ok = compiler.getTask(errors, manager, null, options, null, List.of(file)).call();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close the compiler file manager", e);
+        }
+        if (!ok) {
+            throw new IllegalStateException("Generated evaluator does not compile:\n" + errors);
+        }
+        return bytes.toByteArray();
+    }
+}
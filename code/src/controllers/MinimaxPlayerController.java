@@ -3,11 +3,14 @@ package controllers;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import models.BlueMoveCommand;
 import models.Board;
 import models.Hole;
 import models.MoveCommand;
 import models.Player;
+import models.PositionHash;
 import models.RedMoveCommand;
 import models.TransparentAsBlueMoveCommand;
 import models.TransparentAsRedMoveCommand;
@@ -27,12 +30,62 @@ public class MinimaxPlayerController implements PlayerController {
 
     // Générateur aléatoire pour départager plusieurs coups équivalents
     private final Random random = new Random();
+    // Mode déterministe : le premier des coups équivalents (dans l'ordre de recherche) est joué
+    private boolean deterministic;
+
+    // Budget de nœuds par coup (0 = pas de limite). Contrairement au temps, il ne
+    // dépend pas de la charge de la machine : sans limite de temps, la même
+    // position donne toujours la même recherche.
+    private long nodeLimit;
+    private long nodes;
 
     // Killer move par joueur et par profondeur (un seul killer simple par profondeur)
     private final MoveOption[][] killerMoves;
 
     // History heuristic : history[playerIndex][holeIndex][moveType]
     private final int[][][] history;
+    // Bonus d'une coupure de profondeur d : round(historyScale * d * d) + 1
+    private double historyScale = 1.0;
+
+    // Solveur exact de fin de partie : activé quand il reste strictement moins
+    // de solverThreshold graines sur le plateau (0 = désactivé).
+    private static final int DEFAULT_SOLVER_THRESHOLD = 20;
+    private static final int SOLVER_MAX_PLIES = 40;
+    private int solverThreshold = DEFAULT_SOLVER_THRESHOLD;
+    // Le cache du solveur est conservé d'un coup à l'autre
+    private final EndgameSolver endgameSolver = new EndgameSolver(SOLVER_MAX_PLIES);
+
+    // Gestion du temps optionnelle (null = limite fixe timeLimitMillis)
+    private TimeManager timeManager;
+
+    // Livre d'ouverture optionnel (null = pas de livre)
+    private OpeningBook openingBook;
+
+    // Recherche en cours : état partagé avec le SearchHandle (autre thread)
+    private static final class SearchState {
+        private final SearchListener listener;
+        // Arrêt demandé : la recherche rend son meilleur coup au plus vite
+        private volatile boolean stopRequested;
+        // Meilleur coup de la dernière itération terminée (null avant la première)
+        private volatile String bestMove;
+
+        SearchState(SearchListener listener) {
+            this.listener = listener;
+        }
+    }
+    private SearchState state = new SearchState(null);
+    private long searchStartNanos;
+
+    // Variante principale (table triangulaire) : pvTable[d][d..pvLength[d]) est la
+    // meilleure suite trouvée depuis le nœud courant de profondeur d
+    private final MoveOption[][] pvTable;
+    private final int[] pvLength;
+
+    // Score (point de vue du joueur qui a joué) associé au dernier coup choisi
+    private double lastScore = Double.NaN;
+    // Dernière profondeur entièrement explorée (0 si coup du livre / du solveur)
+    private int lastDepth;
+    private List<String> lastPv = List.of();
 
     public MinimaxPlayerController(Evaluator evaluator, int maxDepth, long timeLimitMillis) {
         this(evaluator, maxDepth, timeLimitMillis, true);
@@ -46,12 +99,65 @@ public class MinimaxPlayerController implements PlayerController {
 
         // Allocation des structures pour killer moves et history heuristic
         this.killerMoves = new MoveOption[2][maxDepth + 1];
+        this.pvTable = new MoveOption[maxDepth + 1][maxDepth + 1];
+        this.pvLength = new int[maxDepth + 1];
         this.history = new int[2][16][MoveType.values().length];
     }
 
-    private enum MoveType { R, B, TR, TB }
+    public void setSolverThreshold(int solverThreshold) {
+        this.solverThreshold = solverThreshold;
+    }
+
+    // Poids du terme en profondeur² dans l'incrément de l'history heuristic (réglé par SpsaTuner)
+    public void setHistoryScale(double historyScale) {
+        this.historyScale = historyScale;
+    }
+
+    // Remplace la limite fixe timeLimitMillis par les échéances du TimeManager
+    public void setTimeManager(TimeManager timeManager) {
+        this.timeManager = timeManager;
+    }
+
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+    }
+
+    // Graine du tirage entre coups de même score : parties reproductibles
+    // (sans limite de temps, la profondeur atteinte dépendant sinon de la machine).
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    public double getLastScore() {
+        return lastScore;
+    }
+
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    // Variante principale associée à getLastScore() (vide si aucune itération terminée) :
+    // le score est l'évaluation de la position au bout de cette variante
+    public List<String> getLastPv() {
+        return lastPv;
+    }
+
+    // Nœuds visités par la dernière recherche
+    public long getLastNodes() {
+        return nodes;
+    }
+
+    enum MoveType { R, B, TR, TB }
 
-    private static class MoveOption {
+    static class MoveOption {
         final int holeIndex; // 0-based
         final MoveType type;
 
@@ -73,11 +179,40 @@ public class MinimaxPlayerController implements PlayerController {
 
     @Override
     public String chooseMove(Board board, Player[] players, int currentPlayerIndex) {
+        return search(board, players, currentPlayerIndex, new SearchState(null));
+    }
+
+    /**
+     * Recherche asynchrone : le listener reçoit un SearchInfo après chaque itération
+     * terminée (ainsi que pour un coup du livre, du solveur ou un coup unique), et
+     * stop() arrête la recherche au prochain nœud. Le solveur de fin de partie
+     * n'est pas interrompu par stop() mais reste borné par son échéance.
+     */
+    @Override
+    public SearchHandle startSearch(Board board, Player[] players, int currentPlayerIndex,
+                                    Executor executor, SearchListener listener) {
+        Board boardCopy = new Board(board);
+        Player[] playersCopy = new Player[players.length];
+        for (int i = 0; i < players.length; i++) {
+            playersCopy[i] = new Player(players[i]);
+        }
+        SearchState searchState = new SearchState(listener);
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(
+                () -> search(boardCopy, playersCopy, currentPlayerIndex, searchState), executor);
+        return new SearchHandle(result, () -> searchState.stopRequested = true, () -> searchState.bestMove);
+    }
+
+    private String search(Board board, Player[] players, int currentPlayerIndex, SearchState searchState) {
         // L'IA choisit un coup en supposant qu'elle est le joueur courant.
         int rootPlayerIndex = currentPlayerIndex;
+        state = searchState;
+        searchStartNanos = System.nanoTime();
 
         // initialisation de la deadline temps (si activée)
-        if (timeLimitMillis > 0) {
+        if (timeManager != null) {
+            timeManager.start(board.totalSeeds());
+            deadlineNanos = timeManager.hardDeadlineNanos();
+        } else if (timeLimitMillis > 0) {
             deadlineNanos = System.nanoTime() + timeLimitMillis * 1_000_000L;
         } else {
             deadlineNanos = 0L;
@@ -87,29 +222,67 @@ public class MinimaxPlayerController implements PlayerController {
         if (ruleController.isGameOver(board, players)) {
             return null; // pas de coup si la partie est déjà finie
         }
+        lastDepth = 0;
+        lastPv = List.of();
+        nodes = 0;
 
         List<MoveOption> moves = generateLegalMoves(board, players[currentPlayerIndex]);
         if (moves.isEmpty()) {
             return null;
         }
+        // Un seul coup possible : inutile de chercher
+        if (timeManager != null && moves.size() == 1) {
+            lastScore = evaluator.evaluate(board, players, rootPlayerIndex);
+            publish(0, lastScore, List.of(moves.get(0).toNotation()));
+            return moves.get(0).toNotation();
+        }
+
+        // Position connue du livre d'ouverture : réponse immédiate, sans recherche.
+        if (openingBook != null) {
+            String bookMove = probeBook(board, players, currentPlayerIndex, moves);
+            if (bookMove != null) {
+                publish(0, lastScore, List.of(bookMove));
+                return bookMove;
+            }
+        }
+
+        // Fin de partie avec peu de graines : on tente une résolution exacte.
+        if (solverThreshold > 0 && board.totalSeeds() < solverThreshold) {
+            String solvedMove = chooseSolvedMove(board, players, currentPlayerIndex, moves);
+            if (solvedMove != null) {
+                publish(0, lastScore, List.of(solvedMove));
+                return solvedMove;
+            }
+        }
 
         // Ordonne les coups pour la racine en utilisant killer/history
         orderMoves(board, moves, currentPlayerIndex, 0);
-        // Itérative deepening : on augmente progressivement la profondeur de recherche
+        // Itérative deepening : on augmente progressivement la profondeur de recherche.
+        // Seules les itérations terminées comptent : une itération interrompue (temps
+        // ou nœuds) n'a comparé qu'une partie des coups, son meilleur coup n'est pas fiable.
+        // Le coup est tiré une fois par itération terminée parmi les coups de même
+        // score : c'est lui qui est publié (SearchHandle) puis renvoyé.
         double bestScoreOverall = Double.NEGATIVE_INFINITY;
-        List<MoveOption> bestMovesOverall = new ArrayList<>();
+        List<MoveOption> chosenPv = null;
 
         for (int depthLimit = 1; depthLimit <= maxDepth; depthLimit++) {
             currentDepthLimit = depthLimit;
 
             double bestScoreThisDepth = Double.NEGATIVE_INFINITY;
-            List<MoveOption> bestMovesThisDepth = new ArrayList<>();
+            // Variantes principales des coups de même meilleur score (le coup en tête)
+            List<List<MoveOption>> bestPvsThisDepth = new ArrayList<>();
 
             double alpha = Double.NEGATIVE_INFINITY;
             double beta = Double.POSITIVE_INFINITY;
 
+            // Le coup choisi à l'itération précédente est exploré en premier
+            if (chosenPv != null) {
+                moves.remove(chosenPv.get(0));
+                moves.add(0, chosenPv.get(0));
+            }
+
             for (MoveOption move : moves) {
-                if (isTimeUp()) {
+                if (isBudgetExhausted()) {
                     break;
                 }
 
@@ -128,10 +301,10 @@ public class MinimaxPlayerController implements PlayerController {
 
                 if (score > bestScoreThisDepth) {
                     bestScoreThisDepth = score;
-                    bestMovesThisDepth.clear();
-                    bestMovesThisDepth.add(move);
+                    bestPvsThisDepth.clear();
+                    bestPvsThisDepth.add(rootPv(move));
                 } else if (score == bestScoreThisDepth) {
-                    bestMovesThisDepth.add(move);
+                    bestPvsThisDepth.add(rootPv(move));
                 }
 
                 if (score > alpha) {
@@ -140,28 +313,45 @@ public class MinimaxPlayerController implements PlayerController {
                 // Pas de mise à jour killer/history ici : on ne coupe pas à ce niveau
             }
 
-            // Si on a trouvé un meilleur score pour cette profondeur, on le conserve.
-            if (!bestMovesThisDepth.isEmpty() && bestScoreThisDepth >= bestScoreOverall) {
+            if (isBudgetExhausted()) {
+                // Itération incomplète : ignorée, sauf s'il n'y a encore rien de mieux
+                if (chosenPv == null && !bestPvsThisDepth.isEmpty()) {
+                    bestScoreOverall = bestScoreThisDepth;
+                    chosenPv = pick(bestPvsThisDepth);
+                }
+                break;
+            }
+            if (!bestPvsThisDepth.isEmpty()) {
                 bestScoreOverall = bestScoreThisDepth;
-                bestMovesOverall = new ArrayList<>(bestMovesThisDepth);
+                // Choix aléatoire parmi les meilleurs coups (même score)
+                chosenPv = pick(bestPvsThisDepth);
+            }
+            lastDepth = depthLimit;
+            if (chosenPv != null) {
+                List<String> pv = new ArrayList<>();
+                for (MoveOption move : chosenPv) {
+                    pv.add(move.toNotation());
+                }
+                publish(depthLimit, bestScoreOverall, pv);
             }
 
-            if (isTimeUp()) {
+            // La stabilité se juge sur le premier des meilleurs coups, pas sur le tirage
+            if (timeManager != null && !bestPvsThisDepth.isEmpty()
+                    && timeManager.shouldStop(bestPvsThisDepth.get(0).get(0).toNotation(), bestScoreOverall)) {
                 break;
             }
         }
 
         // si aucune évaluation n'a été faite (par exemple timeout très court),
         // on choisit au moins le premier coup légal
-        if (bestMovesOverall.isEmpty()) {
-            bestMovesOverall.add(moves.get(0));
+        if (chosenPv == null) {
+            chosenPv = List.of(moves.get(0));
             bestScoreOverall = evaluator.evaluate(board, players, rootPlayerIndex);
         }
 
-        // Choix aléatoire parmi les meilleurs coups (même score)
-        MoveOption chosen = bestMovesOverall.get(random.nextInt(bestMovesOverall.size()));
-
+        MoveOption chosen = chosenPv.get(0);
         String notation = chosen.toNotation();
+        lastScore = bestScoreOverall;
         if (verbose) {
             // Traces de debug sur stderr pour ne pas perturber les protocoles basés sur stdout
             System.err.printf("AI (player %d) chooses move %s (eval=%.1f)%n",
@@ -170,7 +360,91 @@ public class MinimaxPlayerController implements PlayerController {
         return notation;
     }
 
-    private static class NodeState {
+    // Le coup du livre n'est joué que s'il est légal ici (protection contre
+    // une collision de clé ou un livre construit avec d'autres règles).
+    private String probeBook(Board board, Player[] players, int currentPlayerIndex, List<MoveOption> moves) {
+        OpeningBook.Entry entry = openingBook.find(PositionHash.of(board, players, currentPlayerIndex));
+        if (entry == null) {
+            return null;
+        }
+        int rotation = PositionHash.canonicalRotation(board, currentPlayerIndex);
+        String bookMove = OpeningBook.decodeMove(entry.move(), rotation);
+        for (MoveOption move : moves) {
+            if (move.toNotation().equals(bookMove)) {
+                lastScore = entry.score();
+                if (verbose) {
+                    System.err.printf("AI (player %d) book move %s (eval=%d, depth=%d)%n",
+                        currentPlayerIndex + 1, bookMove, entry.score(), entry.depth());
+                }
+                return bookMove;
+            }
+        }
+        return null;
+    }
+
+    // Lance le solveur exact sur la moitié du budget temps.
+    // Renvoie le coup choisi si un gain (ou une nulle au mieux) est prouvé, sinon null
+    // (la liste des coups est alors débarrassée des coups prouvés perdants, s'il en reste d'autres).
+    private String chooseSolvedMove(Board board, Player[] players, int currentPlayerIndex, List<MoveOption> moves) {
+        long solverDeadline = 0L;
+        int plyCap = SOLVER_MAX_PLIES;
+        if (timeManager != null) {
+            solverDeadline = timeManager.solverDeadlineNanos();
+        } else if (timeLimitMillis > 0) {
+            solverDeadline = System.nanoTime() + timeLimitMillis * 500_000L;
+        } else {
+            // Sans limite de temps, rien n'arrêterait le solveur : on le borne à
+            // deux fois la profondeur de recherche (arrondie au demi-coup pair).
+            plyCap = 2 * ((maxDepth + 1) / 2) * 2;
+        }
+        int[] results = endgameSolver.solveRoot(board, players, currentPlayerIndex, moves, plyCap, solverDeadline);
+
+        List<MoveOption> best = new ArrayList<>();
+        int bestResult = EndgameSolver.LOSS - 1;
+        boolean allKnown = true;
+        for (int i = 0; i < moves.size(); i++) {
+            int r = results[i];
+            if (r == EndgameSolver.UNKNOWN) {
+                allKnown = false;
+                continue;
+            }
+            if (r > bestResult) {
+                bestResult = r;
+                best.clear();
+                best.add(moves.get(i));
+            } else if (r == bestResult) {
+                best.add(moves.get(i));
+            }
+        }
+
+        // Position perdue : on laisse la recherche heuristique chercher un coup
+        // qui complique la tâche de l'adversaire.
+        if (bestResult == EndgameSolver.WIN || (allKnown && bestResult == EndgameSolver.DRAW)) {
+            MoveOption chosen = pick(best);
+            lastScore = (bestResult == EndgameSolver.WIN) ? 100.0 : 50.0;
+            if (verbose) {
+                System.err.printf("AI (player %d) solved move %s (result=%s, cache=%d)%n",
+                    currentPlayerIndex + 1, chosen.toNotation(),
+                    bestResult == EndgameSolver.WIN ? "win" : "draw",
+                    endgameSolver.cacheSize());
+            }
+            return chosen.toNotation();
+        }
+
+        // Pas de preuve complète : on écarte au moins les coups perdants.
+        List<MoveOption> notLosing = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            if (results[i] != EndgameSolver.LOSS) {
+                notLosing.add(moves.get(i));
+            }
+        }
+        if (!notLosing.isEmpty()) {
+            moves.retainAll(notLosing);
+        }
+        return null;
+    }
+
+    static class NodeState {
         final Board board;
         final Player[] players;
         final int currentPlayerIndex;
@@ -189,25 +463,27 @@ public class MinimaxPlayerController implements PlayerController {
                             int rootPlayerIndex,
                             double alpha,
                             double beta) {
-        // Coupure par temps : si on dépasse la limite, on renvoie simplement
-        // l'évaluation statique de la position courante.
-        if (timeLimitMillis > 0 && deadlineNanos > 0L) {
-            if (System.nanoTime() > deadlineNanos) {
-                int eval = evaluator.evaluate(board, players, rootPlayerIndex);
-                return eval;
-            }
+        // Coupure par temps ou par nombre de nœuds : si on dépasse la limite, on
+        // renvoie simplement l'évaluation statique de la position courante.
+        nodes++;
+        pvLength[depth] = depth;
+        if (isBudgetExhausted()) {
+            int eval = evaluator.evaluate(board, players, rootPlayerIndex);
+            return eval;
         }
 
         RuleController ruleController = new RuleController();
+        // Feuilles : évaluation par étapes dans la fenêtre courante (sortie anticipée
+        // possible, la valeur renvoyée reste une borne valable pour l'alpha-bêta).
         if (depth >= currentDepthLimit || ruleController.isGameOver(board, players)) {
-            int eval = evaluator.evaluate(board, players, rootPlayerIndex);
+            int eval = evaluator.evaluate(board, players, rootPlayerIndex, alpha, beta);
             return eval;
         }
 
         boolean isMaximizing = (currentPlayerIndex == rootPlayerIndex);
         List<MoveOption> moves = generateLegalMoves(board, players[currentPlayerIndex]);
         if (moves.isEmpty()) {
-            int eval = evaluator.evaluate(board, players, rootPlayerIndex);
+            int eval = evaluator.evaluate(board, players, rootPlayerIndex, alpha, beta);
             return eval;
         }
 
@@ -233,6 +509,7 @@ public class MinimaxPlayerController implements PlayerController {
                 }
                 if (score > alpha) {
                     alpha = score;
+                    updatePv(depth, move);
                 }
                 if (beta <= alpha) {
                     // Beta cut : ce coup est un killer pour ce joueur/profondeur
@@ -260,6 +537,7 @@ public class MinimaxPlayerController implements PlayerController {
                 }
                 if (score < beta) {
                     beta = score;
+                    updatePv(depth, move);
                 }
                 if (beta <= alpha) {
                     // Beta cut côté minimisant
@@ -271,7 +549,7 @@ public class MinimaxPlayerController implements PlayerController {
         }
     }
 
-    private List<MoveOption> generateLegalMoves(Board board, Player currentPlayer) {
+    static List<MoveOption> generateLegalMoves(Board board, Player currentPlayer) {
         List<MoveOption> moves = new ArrayList<>();
 
         int numHoles = board.getNumHoles();
@@ -355,18 +633,54 @@ public class MinimaxPlayerController implements PlayerController {
         }
         int typeIdx = move.type.ordinal();
         // On renforce davantage les coups qui coupent profond
-        int increment = depth * depth + 1;
+        int increment = (int) Math.round(historyScale * depth * depth) + 1;
         history[playerIndex][hole][typeIdx] += increment;
     }
 
-    private boolean isTimeUp() {
-        return timeLimitMillis > 0 && deadlineNanos > 0L && System.nanoTime() > deadlineNanos;
+    // Variante principale d'un coup racine : le coup puis celle de son nœud fils
+    private List<MoveOption> rootPv(MoveOption move) {
+        List<MoveOption> pv = new ArrayList<>();
+        pv.add(move);
+        for (int i = 1; i < pvLength[1]; i++) {
+            pv.add(pvTable[1][i]);
+        }
+        return pv;
+    }
+
+    // move prolonge la variante principale du nœud fils (profondeur depth + 1)
+    private void updatePv(int depth, MoveOption move) {
+        pvTable[depth][depth] = move;
+        for (int i = depth + 1; i < pvLength[depth + 1]; i++) {
+            pvTable[depth][i] = pvTable[depth + 1][i];
+        }
+        pvLength[depth] = pvLength[depth + 1];
+    }
+
+    // Meilleur coup de l'itération terminée, rendu visible au SearchHandle et au listener
+    private void publish(int depth, double score, List<String> pv) {
+        lastPv = List.copyOf(pv);
+        state.bestMove = pv.get(0);
+        if (state.listener != null) {
+            long elapsed = Math.max(1L, System.nanoTime() - searchStartNanos);
+            state.listener.onInfo(new SearchInfo(depth, score, List.copyOf(pv), nodes,
+                    (long) (nodes * 1_000_000_000.0 / elapsed)));
+        }
+    }
+
+    private boolean isBudgetExhausted() {
+        return state.stopRequested
+                || (nodeLimit > 0 && nodes >= nodeLimit)
+                || (deadlineNanos > 0L && System.nanoTime() > deadlineNanos);
+    }
+
+    private <T> T pick(List<T> equivalent) {
+        return deterministic ? equivalent.get(0) : equivalent.get(random.nextInt(equivalent.size()));
     }
 
-    private NodeState applyMove(Board board,
-                                Player[] players,
-                                int currentPlayerIndex,
-                                MoveOption move) {
+    static NodeState applyMove(Board board,
+                               Player[] players,
+                               int currentPlayerIndex,
+                               MoveOption move) {
 
         Board clonedBoard = new Board(board);
         Player[] clonedPlayers = new Player[players.length];
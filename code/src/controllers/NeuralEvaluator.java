@@ -0,0 +1,278 @@
+package controllers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import models.Board;
+import models.Hole;
+import models.Player;
+
+/**
+ * Petit réseau de neurones quantifié (style NNUE), exécuté sur CPU uniquement.
+ *
+ * Entrées one-hot :
+ *   - (trou relatif au joueur évalué, couleur, tranche du nombre de graines) : 16 * 3 * 8
+ *   - (joueur / adversaire, tranche des graines capturées)                   : 2 * 25
+ * Couches :
+ *   - accumulateur int16 de taille H1 = somme des colonnes des entrées actives,
+ *     ReLU bornée à [0, 127] ;
+ *   - dense H1 -> H2, poids int8, accumulation int32, décalage, ReLU bornée ;
+ *   - dense H2 -> 1, poids int8 ; score = 50 + sortie / outputScale, borné à [0, 100].
+ *
+ * L'accumulateur ne dépend que des entrées actives : quand un coup ne touche que
+ * quelques trous, Accumulator.updateHole permet de le mettre à jour sans tout
+ * recalculer (la recherche actuelle clone le plateau à chaque coup, evaluate()
+ * recalcule donc l'accumulateur à partir des 48 + 2 entrées actives).
+ *
+ * Les trous sont numérotés relativement au joueur évalué mais le réseau n'est pas
+ * forcément invariant par rotation : ne pas l'envelopper dans un CachedEvaluator
+ * sauf si ses poids le sont.
+ *
+ * Format du fichier de poids (big-endian) :
+ *   int MAGIC, int H1, int H2, int layer2Shift, int outputScale,
+ *   short W1[INPUTS][H1], short B1[H1], byte W2[H2][H1], int B2[H2], byte W3[H2], int B3
+ */
+public class NeuralEvaluator extends Evaluator {
+
+    public static final int MAGIC = 0x4E4E5531; // "NNU1"
+
+    static final int NUM_HOLES = 16;
+    static final int NUM_COLORS = 3;
+    static final int COUNT_BUCKETS = 8;
+    static final int CAPTURE_BUCKETS = 25;
+    static final int BOARD_INPUTS = NUM_HOLES * NUM_COLORS * COUNT_BUCKETS;
+    public static final int INPUTS = BOARD_INPUTS + 2 * CAPTURE_BUCKETS;
+
+    private static final int ACTIVATION_MAX = 127;
+
+    // Tranches : 0, 1, 2, 3, 4, 5-6, 7-9, 10+
+    private static final int[] COUNT_BUCKET = new int[97];
+
+    static {
+        for (int n = 0; n <= 96; n++) {
+            COUNT_BUCKET[n] = n <= 4 ? n : (n <= 6 ? 5 : (n <= 9 ? 6 : 7));
+        }
+    }
+
+    private final int h1;
+    private final int h2;
+    private final int layer2Shift;
+    private final int outputScale;
+    private final short[] w1; // [INPUTS][h1]
+    private final short[] b1;
+    private final byte[] w2;  // [h2][h1]
+    private final int[] b2;
+    private final byte[] w3;
+    private final int b3;
+
+    public NeuralEvaluator(int h1, int h2, int layer2Shift, int outputScale,
+                           short[] w1, short[] b1, byte[] w2, int[] b2, byte[] w3, int b3) {
+        if (w1.length != INPUTS * h1 || b1.length != h1 || w2.length != h2 * h1
+                || b2.length != h2 || w3.length != h2 || outputScale <= 0) {
+            throw new IllegalArgumentException("Inconsistent network dimensions");
+        }
+        this.h1 = h1;
+        this.h2 = h2;
+        this.layer2Shift = layer2Shift;
+        this.outputScale = outputScale;
+        this.w1 = w1;
+        this.b1 = b1;
+        this.w2 = w2;
+        this.b2 = b2;
+        this.w3 = w3;
+        this.b3 = b3;
+    }
+
+    /**
+     * Réseau initialisé pour reproduire une heuristique matérielle simple
+     * (graines de chaque côté, graines capturées) : point de départ pour
+     * l'entraînement, ou évaluateur de secours sans fichier de poids.
+     */
+    public static NeuralEvaluator materialNetwork() {
+        int h1 = 8;
+        int h2 = 4;
+        short[] w1 = new short[INPUTS * h1];
+        for (int hole = 0; hole < NUM_HOLES; hole++) {
+            int unit = hole & 1; // 0 = nos graines, 1 = celles de l'adversaire
+            for (int color = 0; color < NUM_COLORS; color++) {
+                for (int bucket = 0; bucket < COUNT_BUCKETS; bucket++) {
+                    w1[boardFeature(hole, color, bucket) * h1 + unit] = (short) bucketValue(bucket);
+                }
+            }
+        }
+        for (int side = 0; side < 2; side++) {
+            for (int bucket = 0; bucket < CAPTURE_BUCKETS; bucket++) {
+                // tranche de 4 graines capturées, valeur au milieu de la tranche
+                w1[captureFeature(side, bucket) * h1 + 2 + side] = (short) (bucket * 4 + 2);
+            }
+        }
+        byte[] w2 = new byte[h2 * h1];
+        for (int j = 0; j < h2; j++) {
+            w2[j * h1 + j] = 1;
+        }
+        // (nos graines - les siennes) + 2 * (nos captures - les siennes), / 2
+        byte[] w3 = { 1, -1, 2, -2 };
+        return new NeuralEvaluator(h1, h2, 0, 2, w1, new short[h1], w2, new int[h2], w3, 0);
+    }
+
+    public static NeuralEvaluator load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a network file: " + path);
+            }
+            int h1 = in.readInt();
+            int h2 = in.readInt();
+            int layer2Shift = in.readInt();
+            int outputScale = in.readInt();
+            short[] w1 = new short[INPUTS * h1];
+            for (int i = 0; i < w1.length; i++) w1[i] = in.readShort();
+            short[] b1 = new short[h1];
+            for (int i = 0; i < h1; i++) b1[i] = in.readShort();
+            byte[] w2 = new byte[h2 * h1];
+            in.readFully(w2);
+            int[] b2 = new int[h2];
+            for (int i = 0; i < h2; i++) b2[i] = in.readInt();
+            byte[] w3 = new byte[h2];
+            in.readFully(w3);
+            int b3 = in.readInt();
+            return new NeuralEvaluator(h1, h2, layer2Shift, outputScale, w1, b1, w2, b2, w3, b3);
+        }
+    }
+
+    public void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(h1);
+            out.writeInt(h2);
+            out.writeInt(layer2Shift);
+            out.writeInt(outputScale);
+            for (short v : w1) out.writeShort(v);
+            for (short v : b1) out.writeShort(v);
+            out.write(w2);
+            for (int v : b2) out.writeInt(v);
+            out.write(w3);
+            out.writeInt(b3);
+        }
+    }
+
+    @Override
+    public int evaluate(Board board, Player[] players, int id_idx) {
+        Accumulator acc = newAccumulator();
+        acc.refresh(board, players, id_idx);
+        return evaluate(acc);
+    }
+
+    // Le réseau est calculé d'un bloc : le score exact convient pour toute fenêtre.
+    @Override
+    public int evaluate(Board board, Player[] players, int id_idx, double alpha, double beta) {
+        return evaluate(board, players, id_idx);
+    }
+
+    /** Couches denses à partir d'un accumulateur déjà à jour. */
+    public int evaluate(Accumulator acc) {
+        int[] values = acc.values;
+        int out = b3;
+        for (int j = 0; j < h2; j++) {
+            int sum = b2[j];
+            int row = j * h1;
+            for (int i = 0; i < h1; i++) {
+                sum += w2[row + i] * clip(values[i]);
+            }
+            out += w3[j] * clip(sum >> layer2Shift);
+        }
+
+        double rawScore = 50.0 + (double) out / outputScale;
+        if (rawScore < 0.0) rawScore = 0.0;
+        if (rawScore > 100.0) rawScore = 100.0;
+        return (int) Math.round(rawScore);
+    }
+
+    public Accumulator newAccumulator() {
+        return new Accumulator();
+    }
+
+    /**
+     * Première couche : somme des colonnes de W1 des entrées actives
+     * (valeurs int16, stockées dans un int[] pour éviter les débordements).
+     */
+    public final class Accumulator {
+        private final int[] values = new int[h1];
+
+        public void refresh(Board board, Player[] players, int id_idx) {
+            for (int i = 0; i < h1; i++) {
+                values[i] = b1[i];
+            }
+            for (int i = 0; i < NUM_HOLES; i++) {
+                Hole h = board.getHole(i);
+                int hole = (i - id_idx) & (NUM_HOLES - 1);
+                add(boardFeature(hole, 0, COUNT_BUCKET[h.getRed()]), 1);
+                add(boardFeature(hole, 1, COUNT_BUCKET[h.getBlue()]), 1);
+                add(boardFeature(hole, 2, COUNT_BUCKET[h.getTransparent()]), 1);
+            }
+            add(captureFeature(0, captureBucket(players[id_idx].getCaptured())), 1);
+            add(captureFeature(1, captureBucket(players[1 - id_idx].getCaptured())), 1);
+        }
+
+        /**
+         * Mise à jour incrémentale d'un trou (index relatif au joueur évalué)
+         * dont le contenu passe de old* à new*.
+         */
+        public void updateHole(int hole, int oldRed, int oldBlue, int oldTransparent,
+                               int newRed, int newBlue, int newTransparent) {
+            updateFeature(boardFeature(hole, 0, COUNT_BUCKET[oldRed]), boardFeature(hole, 0, COUNT_BUCKET[newRed]));
+            updateFeature(boardFeature(hole, 1, COUNT_BUCKET[oldBlue]), boardFeature(hole, 1, COUNT_BUCKET[newBlue]));
+            updateFeature(boardFeature(hole, 2, COUNT_BUCKET[oldTransparent]),
+                          boardFeature(hole, 2, COUNT_BUCKET[newTransparent]));
+        }
+
+        /** Mise à jour incrémentale des captures (side = 0 joueur évalué, 1 adversaire). */
+        public void updateCaptured(int side, int oldCaptured, int newCaptured) {
+            updateFeature(captureFeature(side, captureBucket(oldCaptured)),
+                          captureFeature(side, captureBucket(newCaptured)));
+        }
+
+        private void updateFeature(int oldFeature, int newFeature) {
+            if (oldFeature != newFeature) {
+                add(oldFeature, -1);
+                add(newFeature, 1);
+            }
+        }
+
+        private void add(int feature, int sign) {
+            int col = feature * h1;
+            for (int i = 0; i < h1; i++) {
+                values[i] += sign * w1[col + i];
+            }
+        }
+    }
+
+    private static int clip(int v) {
+        return v < 0 ? 0 : (v > ACTIVATION_MAX ? ACTIVATION_MAX : v);
+    }
+
+    static int boardFeature(int hole, int color, int bucket) {
+        return (hole * NUM_COLORS + color) * COUNT_BUCKETS + bucket;
+    }
+
+    static int captureFeature(int side, int bucket) {
+        return BOARD_INPUTS + side * CAPTURE_BUCKETS + bucket;
+    }
+
+    private static int captureBucket(int captured) {
+        return Math.min(captured / 4, CAPTURE_BUCKETS - 1);
+    }
+
+    // Nombre de graines représentatif d'une tranche
+    private static int bucketValue(int bucket) {
+        return switch (bucket) {
+            case 5 -> 5;
+            case 6 -> 8;
+            case 7 -> 11;
+            default -> bucket;
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package controllers;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import models.Board;
+import models.Player;
+import models.PositionHash;
+
+/**
+ * Livre d'ouverture binaire, lu via un fichier mappé en mémoire.
+ *
+ * Format (big-endian) :
+ *   en-tête : int MAGIC, int VERSION, int nombre d'entrées
+ *   entrées triées par clé : long clé (PositionHash), byte coup, byte profondeur, short score
+ *
+ * Les clés sont canoniques (PositionHash, vues du joueur au trait) : toutes les
+ * rotations équivalentes d'une position partagent la même entrée. Le coup est donc
+ * codé sur le trou canonique : (trouCanonique * 4 + type) avec type = R, B, TR, TB.
+ * Le fichier est produit hors ligne par OpeningBookBuilder.
+ */
+public class OpeningBook {
+
+    public static final int MAGIC = 0x4F424B31; // "OBK1"
+    public static final int VERSION = 2;
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_SIZE = 12;
+
+    private static final String[] TYPE_SUFFIXES = { "R", "B", "TR", "TB" };
+
+    public record Entry(long key, int move, int depth, int score) {}
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported opening book version " + buffer.getInt(4) + ": " + path);
+            }
+            int size = buffer.getInt(8);
+            if ((long) HEADER_SIZE + (long) size * ENTRY_SIZE > buffer.capacity()) {
+                throw new IOException("Truncated opening book: " + path);
+            }
+            return new OpeningBook(buffer, size);
+        }
+    }
+
+    // Ouvre le livre s'il existe, sinon renvoie null (le livre reste optionnel).
+    public static OpeningBook openIfExists(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return open(path);
+        } catch (IOException e) {
+            System.err.println("Opening book ignored: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Cherche la position dans le livre.
+     * @return le coup (ex: "5R") ou null si la position est absente.
+     */
+    public String probe(Board board, Player[] players, int currentPlayerIndex) {
+        Entry e = find(PositionHash.of(board, players, currentPlayerIndex));
+        return e == null ? null : decodeMove(e.move(), PositionHash.canonicalRotation(board, currentPlayerIndex));
+    }
+
+    public Entry find(long key) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long k = buffer.getLong(HEADER_SIZE + mid * ENTRY_SIZE);
+            if (k < key) {
+                lo = mid + 1;
+            } else if (k > key) {
+                hi = mid - 1;
+            } else {
+                return readEntry(mid);
+            }
+        }
+        return null;
+    }
+
+    public List<Entry> entries() {
+        List<Entry> all = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            all.add(readEntry(i));
+        }
+        return all;
+    }
+
+    private Entry readEntry(int i) {
+        int off = HEADER_SIZE + i * ENTRY_SIZE;
+        return new Entry(buffer.getLong(off),
+                         buffer.get(off + 8) & 0xFF,
+                         buffer.get(off + 9) & 0xFF,
+                         buffer.getShort(off + 10));
+    }
+
+    /**
+     * Écrit un livre complet (trié par clé). L'écriture passe par un fichier
+     * temporaire renommé à la fin, pour ne jamais laisser un livre à moitié écrit.
+     */
+    public static void write(Path path, Collection<Entry> entries) throws IOException {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingLong(Entry::key));
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            for (Entry e : sorted) {
+                out.writeLong(e.key());
+                out.writeByte(e.move());
+                out.writeByte(Math.min(e.depth(), 255));
+                out.writeShort(e.score());
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Coup réel -> code stocké, rotation = PositionHash.canonicalRotation(...)
+    public static int encodeMove(String notation, int rotation) {
+        String s = notation.trim().toUpperCase();
+        int i = 0;
+        int holeNumber = 0;
+        while (i < s.length() && Character.isDigit(s.charAt(i))) {
+            holeNumber = holeNumber * 10 + (s.charAt(i) - '0');
+            i++;
+        }
+        String type = s.substring(i);
+        for (int t = 0; t < TYPE_SUFFIXES.length; t++) {
+            if (TYPE_SUFFIXES[t].equals(type)) {
+                return PositionHash.canonicalHole(holeNumber - 1, rotation) * 4 + t;
+            }
+        }
+        throw new IllegalArgumentException("Unknown move: " + notation);
+    }
+
+    // Code stocké -> coup réel, rotation = PositionHash.canonicalRotation(...)
+    public static String decodeMove(int code, int rotation) {
+        return (PositionHash.actualHole(code >> 2, rotation) + 1) + TYPE_SUFFIXES[code & 3];
+    }
+}
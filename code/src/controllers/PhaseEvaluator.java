@@ -135,6 +135,26 @@ public class PhaseEvaluator extends Evaluator {
         }
         }
 
+    public Evaluator getOpeningEvaluator() {
+        return openingEval;
+    }
+
+    public Evaluator getMidEvaluator() {
+        return midEval;
+    }
+
+    public Evaluator getEndEvaluator() {
+        return endEval;
+    }
+
+    public int getOpeningThreshold() {
+        return openingThreshold;
+    }
+
+    public int getMidThreshold() {
+        return midThreshold;
+    }
+
     @Override
     public int evaluate(Board board, Player[] players, int id_idx) {
         int total = board.totalSeeds();
@@ -146,4 +166,16 @@ public class PhaseEvaluator extends Evaluator {
             return endEval.evaluate(board, players, id_idx);
         }
     }
+
+    @Override
+    public int evaluate(Board board, Player[] players, int id_idx, double alpha, double beta) {
+        int total = board.totalSeeds();
+        if (total > openingThreshold) {
+            return openingEval.evaluate(board, players, id_idx, alpha, beta);
+        } else if (total > midThreshold) {
+            return midEval.evaluate(board, players, id_idx, alpha, beta);
+        } else {
+            return endEval.evaluate(board, players, id_idx, alpha, beta);
+        }
+    }
 }
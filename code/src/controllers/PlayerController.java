@@ -1,5 +1,7 @@
 package controllers;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import models.Board;
 import models.Player;
 
@@ -9,4 +11,23 @@ public interface PlayerController {
      * Returns a move text (e.g. "5R", "8B", "4TR", "7TB").
      */
     String chooseMove(Board board, Player[] players, int currentPlayerIndex);
+
+    /**
+     * Start deciding a move on the given executor and return immediately.
+     * The position is copied first, so the caller may change its board while
+     * the search runs. A controller runs one search at a time.
+     * The listener (may be null) receives progress information; this default
+     * implementation sends none and cannot be stopped early.
+     */
+    default SearchHandle startSearch(Board board, Player[] players, int currentPlayerIndex,
+                                     Executor executor, SearchListener listener) {
+        Board boardCopy = new Board(board);
+        Player[] playersCopy = new Player[players.length];
+        for (int i = 0; i < players.length; i++) {
+            playersCopy[i] = new Player(players[i]);
+        }
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(
+                () -> chooseMove(boardCopy, playersCopy, currentPlayerIndex), executor);
+        return new SearchHandle(result, () -> { }, () -> null);
+    }
 }
@@ -1,5 +1,7 @@
 package controllers;
 
+import java.util.ArrayList;
+import java.util.List;
 import models.Board;
 import models.Hole;
 import models.Player;
@@ -60,6 +62,26 @@ public class RuleController {
         return false;
     }
 
+    /**
+     * Legal moves for a player, in text form ("5R", "5B", "5TR", "5TB").
+     * A move is legal as soon as the hole holds seeds of the played colour.
+     */
+    public List<String> legalMoves(Board board, Player player) {
+        List<String> moves = new ArrayList<>();
+        for (int i = 0; i < board.getNumHoles(); i++) {
+            if (!player.ownsHoleIndex(i)) {
+                continue;
+            }
+            Hole h = board.getHole(i);
+            int holeNumber = i + 1;
+            if (h.getRed() > 0) moves.add(holeNumber + "R");
+            if (h.getBlue() > 0) moves.add(holeNumber + "B");
+            if (h.getTransparent() + h.getRed() > 0) moves.add(holeNumber + "TR");
+            if (h.getTransparent() + h.getBlue() > 0) moves.add(holeNumber + "TB");
+        }
+        return moves;
+    }
+
     /**
      * Who wins?
      * @return 0 for Player 1, 1 for Player 2, -1 for draw.
@@ -68,6 +90,8 @@ public class RuleController {
     public int winner(Player[] players) {
         int p1 = players[0].getCaptured();
         int p2 = players[1].getCaptured();
-        return Integer.compare(p1, p2); // 1 if p2>p1, -1 if p1>p2, 0 if equal
+        if (p1 > p2) return 0;
+        if (p2 > p1) return 1;
+        return -1;
     }
 }
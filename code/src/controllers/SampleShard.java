@@ -0,0 +1,199 @@
+package controllers;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import models.Board;
+import models.Hole;
+import models.Player;
+import models.SeedColor;
+
+/**
+ * Fichier d'échantillons (position, résultat de la partie) pour le réglage hors
+ * ligne des évaluateurs, lu via un fichier mappé en mémoire.
+ *
+ * Format (big-endian) :
+ *   en-tête : int MAGIC, int VERSION
+ *   échantillons de RECORD_SIZE octets :
+ *     48 octets : graines rouges, bleues, transparentes des trous 0 à 15
+ *     byte graines capturées par le joueur 0, byte par le joueur 1
+ *     byte joueur au trait
+ *     byte résultat pour le joueur au trait (LOSS, DRAW, WIN)
+ *     byte score de la recherche pour le joueur au trait (0..100, NONE si inconnu)
+ *     byte meilleur coup trouvé (trou * 4 + type, comme OpeningBook sans rotation, NONE si inconnu)
+ *     2 octets réservés
+ *
+ * Le nombre d'échantillons se déduit de la taille du fichier : un fichier dont
+ * l'écriture a été interrompue est lu jusqu'au dernier échantillon complet, et
+ * l'écriture peut reprendre en fin de fichier. Un fichier mappé est limité à 2 Go
+ * (environ 38 millions d'échantillons) : au-delà, découper en plusieurs fichiers.
+ */
+public final class SampleShard {
+
+    public static final int MAGIC = 0x534D5031; // "SMP1"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".samples";
+    private static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 56;
+
+    public static final int LOSS = 0;
+    public static final int DRAW = 1;
+    public static final int WIN = 2;
+    public static final int NONE = 255;
+
+    private static final int NUM_HOLES = 16;
+    private static final int CAPTURED_OFFSET = 48;
+    private static final int SIDE_OFFSET = 50;
+    private static final int RESULT_OFFSET = 51;
+    private static final int SCORE_OFFSET = 52;
+    private static final int MOVE_OFFSET = 53;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private SampleShard(MappedByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    public static SampleShard open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Sample file larger than 2 GB, split it: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a sample file: " + path);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported sample file version " + buffer.getInt(4) + ": " + path);
+            }
+            return new SampleShard(buffer, (buffer.capacity() - HEADER_SIZE) / RECORD_SIZE);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Graines de couleur color (0 = R, 1 = B, 2 = T) dans le trou hole (0-based). */
+    public int seeds(int sample, int hole, int color) {
+        return buffer.get(offset(sample) + hole * 3 + color);
+    }
+
+    public int captured(int sample, int playerIndex) {
+        return buffer.get(offset(sample) + CAPTURED_OFFSET + playerIndex) & 0xFF;
+    }
+
+    public int sideToMove(int sample) {
+        return buffer.get(offset(sample) + SIDE_OFFSET);
+    }
+
+    public int result(int sample) {
+        return buffer.get(offset(sample) + RESULT_OFFSET);
+    }
+
+    public int searchScore(int sample) {
+        return buffer.get(offset(sample) + SCORE_OFFSET) & 0xFF;
+    }
+
+    public int bestMove(int sample) {
+        return buffer.get(offset(sample) + MOVE_OFFSET) & 0xFF;
+    }
+
+    public Board board(int sample) {
+        Board board = new Board();
+        for (int i = 0; i < NUM_HOLES; i++) {
+            Hole h = board.getHole(i);
+            h.clear();
+            addSeeds(h, SeedColor.RED, seeds(sample, i, 0));
+            addSeeds(h, SeedColor.BLUE, seeds(sample, i, 1));
+            addSeeds(h, SeedColor.TRANSPARENT, seeds(sample, i, 2));
+        }
+        return board;
+    }
+
+    public Player[] players(int sample) {
+        Player[] players = { new Player(0, "Player 1"), new Player(1, "Player 2") };
+        players[0].addCaptured(captured(sample, 0));
+        players[1].addCaptured(captured(sample, 1));
+        return players;
+    }
+
+    private static void addSeeds(Hole h, SeedColor color, int n) {
+        for (int k = 0; k < n; k++) {
+            h.addSeed(color);
+        }
+    }
+
+    private static int offset(int sample) {
+        return HEADER_SIZE + sample * RECORD_SIZE;
+    }
+
+    /**
+     * Écriture séquentielle d'échantillons, en ajout à la fin d'un fichier existant.
+     * Non thread-safe : un seul écrivain par fichier.
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private long written;
+
+        public Writer(Path path) throws IOException {
+            long existing = Files.exists(path) ? Files.size(path) : 0L;
+            if (existing > 0 && existing < HEADER_SIZE) {
+                throw new IOException("Not a sample file: " + path);
+            }
+            long partial = existing > 0 ? (existing - HEADER_SIZE) % RECORD_SIZE : 0L;
+            if (partial != 0) {
+                // dernier échantillon incomplet (écriture interrompue) : on le retire
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(existing - partial);
+                }
+            }
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+            if (existing == 0) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+            }
+        }
+
+        public void write(Board board, Player[] players, int sideToMove,
+                          int result, int searchScore, int bestMove) throws IOException {
+            for (int i = 0; i < NUM_HOLES; i++) {
+                Hole h = board.getHole(i);
+                out.writeByte(h.getRed());
+                out.writeByte(h.getBlue());
+                out.writeByte(h.getTransparent());
+            }
+            out.writeByte(players[0].getCaptured());
+            out.writeByte(players[1].getCaptured());
+            out.writeByte(sideToMove);
+            out.writeByte(result);
+            out.writeByte(searchScore);
+            out.writeByte(bestMove);
+            out.writeShort(0);
+            written++;
+        }
+
+        public long written() {
+            return written;
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package controllers;
+
+/** Implémentation de référence de BoardKernels, sans vectorisation. */
+public final class ScalarBoardKernels implements BoardKernels {
+
+    @Override
+    public int sideSum(int[] values, int parity) {
+        int sum = 0;
+        for (int i = parity; i < NUM_HOLES; i += 2) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int captureMask(int[] totals) {
+        int mask = 0;
+        for (int i = 0; i < NUM_HOLES; i++) {
+            if (totals[i] == 2 || totals[i] == 3) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public int mobility(int[] red, int[] blue, int[] transparent, int parity) {
+        int count = 0;
+        for (int i = parity; i < NUM_HOLES; i += 2) {
+            if (red[i] > 0) count++;
+            if (blue[i] > 0) count++;
+            if (transparent[i] + red[i] > 0) count++;
+            if (transparent[i] + blue[i] > 0) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
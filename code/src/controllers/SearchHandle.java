@@ -0,0 +1,39 @@
+package controllers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Recherche en cours, lancée par PlayerController.startSearch.
+ *
+ * result() se termine avec le coup choisi (null si aucun coup possible) ; après
+ * stop(), il se termine dès que la recherche a rendu la main, avec le coup de
+ * sa dernière itération terminée, celui que donnait bestMoveSoFar.
+ */
+public final class SearchHandle {
+
+    private final CompletableFuture<String> result;
+    private final Runnable stopAction;
+    private final Supplier<String> bestMoveSoFar;
+
+    public SearchHandle(CompletableFuture<String> result, Runnable stopAction, Supplier<String> bestMoveSoFar) {
+        this.result = result;
+        this.stopAction = stopAction;
+        this.bestMoveSoFar = bestMoveSoFar;
+    }
+
+    public CompletableFuture<String> result() {
+        return result;
+    }
+
+    /** Meilleur coup de la dernière itération terminée (null si aucune, ou si la recherche ne le publie pas). */
+    public String bestMoveSoFar() {
+        return result.isDone() && !result.isCompletedExceptionally() ? result.join() : bestMoveSoFar.get();
+    }
+
+    /** Demande l'arrêt de la recherche et renvoie aussitôt le meilleur coup connu (voir bestMoveSoFar). */
+    public String stop() {
+        stopAction.run();
+        return bestMoveSoFar();
+    }
+}
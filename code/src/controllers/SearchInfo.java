@@ -0,0 +1,12 @@
+package controllers;
+
+import java.util.List;
+
+/**
+ * Informations sur une itération terminée d'une recherche : profondeur, score
+ * (point de vue du joueur qui cherche), variante principale (coups en notation
+ * texte, le premier est le meilleur coup), nœuds visités et nœuds par seconde
+ * depuis le début de la recherche.
+ */
+public record SearchInfo(int depth, double score, List<String> pv, long nodes, long nps) {
+}
@@ -0,0 +1,10 @@
+package controllers;
+
+/**
+ * Reçoit les informations d'une recherche lancée par PlayerController.startSearch.
+ * Appelé sur le thread de la recherche : doit rendre la main rapidement.
+ */
+@FunctionalInterface
+public interface SearchListener {
+    void onInfo(SearchInfo info);
+}
@@ -0,0 +1,134 @@
+package controllers;
+
+import models.Board;
+import models.Hole;
+import models.Player;
+
+/**
+ * Evaluateur par tables précalculées, dans l'esprit des tables « pièce-case » des
+ * moteurs d'échecs.
+ *
+ * Pour chaque trou, on additionne :
+ *   - 3 entrées colorTable[propriétaire][couleur][nombre de graines de cette couleur]
+ *     (matériel, famine) ;
+ *   - 1 entrée mobilityTable[propriétaire][couleurs présentes] (nombre exact de
+ *     coups du trou : R si rouge, B si bleu, TR si t + r > 0, TB si t + b > 0) ;
+ *   - 1 entrée totalTable[propriétaire][graines du trou]
+ *     (trous vulnérables à 1-2 graines, menaces de capture chez l'adversaire,
+ *     gros trous qui permettent de faire le tour du plateau).
+ * S'y ajoute le terme des graines capturées, puis la même normalisation [0,100]
+ * que Evaluator.
+ *
+ * Les règles étant invariantes par rotation du plateau, la position d'un trou dans
+ * son camp n'a pas d'importance : les tables ne dépendent que du propriétaire
+ * (joueur évalué ou adversaire). L'évaluateur reste donc compatible avec les clés
+ * canoniques de CachedEvaluator.
+ */
+public class TableEvaluator extends Evaluator {
+
+    private static final int MAX_COLOR_COUNT = 32;
+    private static final int MAX_HOLE_SEEDS = 96;
+    private static final int MINE = 0;
+    private static final int THEIRS = 1;
+    // Au-delà de 15 graines, un semis rouge fait le tour complet du plateau
+    private static final int LARGE_HOLE = 16;
+
+    // colorTable[propriétaire][couleur R/B/T][nombre]
+    private final double[][][] colorTable = new double[2][3][MAX_COLOR_COUNT + 1];
+    // mobilityTable[propriétaire][rouge présent | bleu présent << 1 | transparent présent << 2]
+    private final double[][] mobilityTable = new double[2][8];
+    // totalTable[propriétaire][total du trou]
+    private final double[][] totalTable = new double[2][MAX_HOLE_SEEDS + 1];
+
+    public TableEvaluator() {
+        this(1.0, 0.7, 0.5, 0.3, 0.2, 0.4, 0.3, 1.0);
+    }
+
+    public TableEvaluator(double capturedWeight,
+                          double boardWeight,
+                          double scale,
+                          double famineWeight,
+                          double mobilityWeight,
+                          double vulnerabilityWeight,
+                          double threatWeight,
+                          double largeHoleWeight) {
+        super(capturedWeight, boardWeight, scale, famineWeight);
+
+        for (int owner = MINE; owner <= THEIRS; owner++) {
+            double sign = (owner == MINE) ? 1.0 : -1.0;
+
+            for (int n = 0; n <= MAX_COLOR_COUNT; n++) {
+                // Matériel + famine : chaque graine de notre côté compte (boardWeight + famineWeight)
+                double material = sign * (boardWeight + famineWeight) * n;
+                colorTable[owner][0][n] = material;
+                colorTable[owner][1][n] = material;
+                colorTable[owner][2][n] = material;
+            }
+
+            // Mobilité : la présence des couleurs ne s'additionne pas (le transparent
+            // n'ouvre TR que s'il n'y a pas déjà du rouge, etc.), d'où une table par
+            // combinaison plutôt qu'une valeur par couleur.
+            for (int present = 0; present < 8; present++) {
+                boolean red = (present & 1) != 0;
+                boolean blue = (present & 2) != 0;
+                boolean transparent = (present & 4) != 0;
+                int moves = (red ? 1 : 0) + (blue ? 1 : 0)
+                          + (transparent || red ? 1 : 0) + (transparent || blue ? 1 : 0);
+                mobilityTable[owner][present] = sign * mobilityWeight * moves;
+            }
+
+            for (int total = 0; total <= MAX_HOLE_SEEDS; total++) {
+                double value = 0.0;
+                if (total == 1 || total == 2) {
+                    // Une graine de plus donne 2 ou 3 : trou capturable.
+                    // Chez nous c'est une faiblesse, chez l'adversaire une menace.
+                    value = (owner == MINE)
+                            ? -vulnerabilityWeight * (total + 1)
+                            : threatWeight * (total + 1);
+                }
+                if (total >= LARGE_HOLE) {
+                    value += sign * largeHoleWeight;
+                }
+                totalTable[owner][total] = value;
+            }
+        }
+    }
+
+    @Override
+    public int evaluate(Board board, Player[] players, int id_idx) {
+        double sum = getCapturedWeight() * (players[id_idx].getCaptured() - players[1 - id_idx].getCaptured());
+
+        int numHoles = board.getNumHoles();
+        for (int i = 0; i < numHoles; i++) {
+            Hole h = board.getHole(i);
+            sum += holeTerm(h.getRed(), h.getBlue(), h.getTransparent(), (i & 1) ^ id_idx);
+        }
+
+        double rawScore = 50.0 + getScale() * sum;
+        if (rawScore < 0.0) rawScore = 0.0;
+        if (rawScore > 100.0) rawScore = 100.0;
+        return (int) Math.round(rawScore);
+    }
+
+    // Un seul passage, rien à sauter : le score exact est une réponse valable pour la fenêtre.
+    @Override
+    public int evaluate(Board board, Player[] players, int id_idx, double alpha, double beta) {
+        return evaluate(board, players, id_idx);
+    }
+
+    /**
+     * Contribution d'un trou (owner = 0 pour le joueur évalué, 1 pour l'adversaire).
+     * La somme étant additive par trou, un appelant qui joue les coups en place peut
+     * tenir un accumulateur à jour en retirant l'ancienne contribution des trous
+     * touchés par le coup et en ajoutant la nouvelle.
+     */
+    public double holeTerm(int red, int blue, int transparent, int owner) {
+        double[][] colors = colorTable[owner];
+        int present = (red > 0 ? 1 : 0) | (blue > 0 ? 2 : 0) | (transparent > 0 ? 4 : 0);
+        return colors[0][red]
+             + colors[1][blue]
+             + colors[2][transparent]
+             + mobilityTable[owner][present]
+             + totalTable[owner][red + blue + transparent];
+    }
+}
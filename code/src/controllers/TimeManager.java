@@ -0,0 +1,134 @@
+package controllers;
+
+/**
+ * Gestion du temps par coup pour MinimaxPlayerController (limite par coup, comme
+ * le TIMEOUT_SECONDS de l'arbitre).
+ *
+ * Deux échéances :
+ *   - dure : moveTime - marge de sécurité ; la recherche s'arrête net, et
+ *     l'itération en cours est abandonnée ;
+ *   - souple : fraction de l'échéance dure selon la phase (nombre de graines
+ *     restantes) ; aucune nouvelle itération ne commence après elle.
+ *
+ * L'échéance souple est ajustée après chaque itération terminée :
+ *   - divisée par deux si le meilleur coup n'a pas changé depuis STABLE_ITERATIONS
+ *     itérations ;
+ *   - doublée (dans la limite de l'échéance dure) jusqu'à la fin du coup dès que
+ *     le score baisse de plus de SCORE_DROP points par rapport à l'itération
+ *     précédente ou au score final du coup précédent.
+ * Une itération n'est pas commencée si sa durée prévue (durée de la précédente
+ * multipliée par le facteur de croissance observé) dépasse l'échéance dure.
+ *
+ * Un TimeManager par contrôleur : il garde le score du coup précédent.
+ */
+public class TimeManager {
+
+    private static final int OPENING_SEEDS = 70;
+    private static final int MID_SEEDS = 40;
+    private static final double OPENING_FRACTION = 0.4;
+    private static final double MID_FRACTION = 0.7;
+    private static final double END_FRACTION = 0.5;
+
+    private static final int STABLE_ITERATIONS = 3;
+    private static final double SCORE_DROP = 3.0;
+
+    private final long moveTimeNanos;
+    private final long safetyMarginNanos;
+
+    private long startNanos;
+    private long hardDeadlineNanos;
+    private long softBudgetNanos;
+
+    private String lastBestMove;
+    private int stableIterations;
+    private double lastIterationScore;
+    // Score de la dernière itération terminée du coup précédent
+    private double previousMoveScore = Double.NaN;
+    // Échéance souple doublée après une baisse de score (jusqu'à la fin du coup)
+    private boolean extended;
+    private long lastIterationEndNanos;
+    private long lastIterationNanos;
+    private double growth;
+
+    public TimeManager(long moveTimeMillis, long safetyMarginMillis) {
+        this.moveTimeNanos = moveTimeMillis * 1_000_000L;
+        this.safetyMarginNanos = safetyMarginMillis * 1_000_000L;
+    }
+
+    /** Début de la recherche d'un coup ; totalSeeds = graines restantes sur le plateau. */
+    public void start(int totalSeeds) {
+        startNanos = System.nanoTime();
+        long hardBudget = Math.max(1_000_000L, moveTimeNanos - safetyMarginNanos);
+        hardDeadlineNanos = startNanos + hardBudget;
+
+        double fraction;
+        if (totalSeeds > OPENING_SEEDS) {
+            fraction = OPENING_FRACTION;
+        } else if (totalSeeds > MID_SEEDS) {
+            fraction = MID_FRACTION;
+        } else {
+            fraction = END_FRACTION;
+        }
+        softBudgetNanos = (long) (hardBudget * fraction);
+
+        if (!Double.isNaN(lastIterationScore)) {
+            previousMoveScore = lastIterationScore;
+        }
+        lastBestMove = null;
+        stableIterations = 0;
+        extended = false;
+        lastIterationScore = Double.NaN;
+        lastIterationEndNanos = startNanos;
+        lastIterationNanos = 0L;
+        growth = 0.0;
+    }
+
+    public long hardDeadlineNanos() {
+        return hardDeadlineNanos;
+    }
+
+    /** Échéance pour le solveur de fin de partie : la moitié du temps restant. */
+    public long solverDeadlineNanos() {
+        long now = System.nanoTime();
+        return now + Math.max(0L, hardDeadlineNanos - now) / 2;
+    }
+
+    /**
+     * Appelé après chaque itération terminée (meilleur coup et score, du point de
+     * vue du joueur qui cherche) ; true s'il ne faut pas commencer la suivante.
+     */
+    public boolean shouldStop(String bestMove, double bestScore) {
+        long now = System.nanoTime();
+        long iterationNanos = now - lastIterationEndNanos;
+        if (lastIterationNanos > 0) {
+            growth = (double) iterationNanos / lastIterationNanos;
+        }
+        lastIterationNanos = iterationNanos;
+        lastIterationEndNanos = now;
+
+        stableIterations = bestMove.equals(lastBestMove) ? stableIterations + 1 : 0;
+        lastBestMove = bestMove;
+
+        boolean scoreDropped = (!Double.isNaN(lastIterationScore) && bestScore < lastIterationScore - SCORE_DROP)
+                || (!Double.isNaN(previousMoveScore) && bestScore < previousMoveScore - SCORE_DROP);
+        if (scoreDropped) {
+            extended = true;
+        }
+        lastIterationScore = bestScore;
+
+        long soft = softBudgetNanos;
+        if (stableIterations >= STABLE_ITERATIONS - 1) {
+            soft /= 2;
+        }
+        if (extended) {
+            soft *= 2;
+        }
+        long elapsed = now - startNanos;
+        if (elapsed >= Math.min(soft, hardDeadlineNanos - startNanos)) {
+            return true;
+        }
+        // L'itération suivante ne finirait pas avant l'échéance dure : inutile de la commencer
+        double predicted = iterationNanos * Math.max(1.0, growth);
+        return now + predicted > hardDeadlineNanos;
+    }
+}
@@ -0,0 +1,179 @@
+package controllers;
+
+import java.util.Locale;
+import models.Board;
+import models.Hole;
+import models.Player;
+
+/**
+ * Caractéristiques communes aux outils de réglage des poids (TexelTuner, ...).
+ *
+ * Du point de vue du joueur évalué, Evaluator / CompiledPhaseEvaluator calculent
+ *   score = 50 + scale * (capturedWeight * dCaptures
+ *                         + (boardWeight + famineWeight) * dSeeds
+ *                         + mobilityWeight * dMobility)
+ * borné à [0, 100], les poids dépendant de la phase (nombre total de graines).
+ * Le modèle réglé est donc linéaire en 3 coefficients par phase :
+ *   A = scale * capturedWeight, B = scale * (boardWeight + famineWeight),
+ *   C = scale * mobilityWeight.
+ * boardWeight et famineWeight multiplient la même différence et ne sont pas
+ * identifiables séparément : la famine du profil de départ est conservée.
+ */
+public final class TuningFeatures {
+
+    // Indices dans le tableau de caractéristiques
+    public static final int TOTAL = 0;
+    public static final int CAPTURED = 1;
+    public static final int SEEDS = 2;
+    public static final int MOBILITY = 3;
+    public static final int COUNT = 4;
+
+    // Indices dans le vecteur de paramètres (3 coefficients par phase)
+    public static final int OPENING = 0;
+    public static final int MID = 1;
+    public static final int END = 2;
+    public static final int PARAMS_PER_PHASE = 3;
+    public static final int NUM_PARAMS = 3 * PARAMS_PER_PHASE;
+
+    private static final int NUM_HOLES = 16;
+
+    private TuningFeatures() {
+    }
+
+    /** Caractéristiques de la position vue par le joueur id_idx. */
+    public static void extract(Board board, Player[] players, int id_idx, int[] out) {
+        int total = 0;
+        int seeds = 0;
+        int mobility = 0;
+        for (int i = 0; i < NUM_HOLES; i++) {
+            Hole h = board.getHole(i);
+            int sign = (i & 1) == id_idx ? 1 : -1;
+            int n = h.total();
+            total += n;
+            seeds += sign * n;
+            mobility += sign * moves(h.getRed(), h.getBlue(), h.getTransparent());
+        }
+        out[TOTAL] = total;
+        out[CAPTURED] = players[id_idx].getCaptured() - players[1 - id_idx].getCaptured();
+        out[SEEDS] = seeds;
+        out[MOBILITY] = mobility;
+    }
+
+    /** Caractéristiques d'un échantillon, vu par le joueur au trait. */
+    public static void extract(SampleShard shard, int sample, int[] out) {
+        int side = shard.sideToMove(sample);
+        int total = 0;
+        int seeds = 0;
+        int mobility = 0;
+        for (int i = 0; i < NUM_HOLES; i++) {
+            int red = shard.seeds(sample, i, 0);
+            int blue = shard.seeds(sample, i, 1);
+            int transparent = shard.seeds(sample, i, 2);
+            int sign = (i & 1) == side ? 1 : -1;
+            int n = red + blue + transparent;
+            total += n;
+            seeds += sign * n;
+            mobility += sign * moves(red, blue, transparent);
+        }
+        out[TOTAL] = total;
+        out[CAPTURED] = shard.captured(sample, side) - shard.captured(sample, 1 - side);
+        out[SEEDS] = seeds;
+        out[MOBILITY] = mobility;
+    }
+
+    // Même compte que Evaluator.approximateMoveCount
+    private static int moves(int red, int blue, int transparent) {
+        int count = 0;
+        if (red > 0) count++;
+        if (blue > 0) count++;
+        if (transparent + red > 0) count++;
+        if (transparent + blue > 0) count++;
+        return count;
+    }
+
+    /** Phase (OPENING, MID, END) d'un total de graines, même règle que PhaseEvaluator. */
+    public static int phase(int total, int openingThreshold, int midThreshold) {
+        if (total > openingThreshold) {
+            return OPENING;
+        } else if (total > midThreshold) {
+            return MID;
+        }
+        return END;
+    }
+
+    /** Score du modèle linéaire avant bornage à [0, 100]. */
+    public static double linearScore(double[] params, int phase, int[] features) {
+        int p = phase * PARAMS_PER_PHASE;
+        return 50.0 + params[p] * features[CAPTURED]
+                    + params[p + 1] * features[SEEDS]
+                    + params[p + 2] * features[MOBILITY];
+    }
+
+    /** Coefficients (A, B, C) des trois phases d'un évaluateur. */
+    public static double[] toParams(CompiledPhaseEvaluator evaluator) {
+        double[] params = new double[NUM_PARAMS];
+        CompiledPhaseEvaluator.PhaseWeights[] phases = { evaluator.getOpening(), evaluator.getMid(), evaluator.getEnd() };
+        for (int phase = 0; phase < 3; phase++) {
+            CompiledPhaseEvaluator.PhaseWeights w = phases[phase];
+            int p = phase * PARAMS_PER_PHASE;
+            params[p] = w.scale() * w.capturedWeight();
+            params[p + 1] = w.scale() * (w.boardWeight() + w.famineWeight());
+            params[p + 2] = w.scale() * w.mobilityWeight();
+        }
+        return params;
+    }
+
+    /**
+     * Évaluateur correspondant aux coefficients, en gardant les seuils et la famine
+     * de base. Quand C > 0, l'échelle est choisie pour que la mobilité garde le poids
+     * fixe de Evaluator : le résultat s'écrit alors aussi comme un PhaseProfile.
+     */
+    public static CompiledPhaseEvaluator toEvaluator(double[] params, CompiledPhaseEvaluator base) {
+        CompiledPhaseEvaluator.PhaseWeights[] phases = { base.getOpening(), base.getMid(), base.getEnd() };
+        CompiledPhaseEvaluator.PhaseWeights[] tuned = new CompiledPhaseEvaluator.PhaseWeights[3];
+        for (int phase = 0; phase < 3; phase++) {
+            CompiledPhaseEvaluator.PhaseWeights w = phases[phase];
+            int p = phase * PARAMS_PER_PHASE;
+            double a = params[p];
+            double b = params[p + 1];
+            double c = params[p + 2];
+            double scale;
+            double mobilityWeight;
+            if (c > 1e-6) {
+                mobilityWeight = Evaluator.MOBILITY_WEIGHT;
+                scale = c / mobilityWeight;
+            } else {
+                scale = w.scale();
+                mobilityWeight = c / scale;
+            }
+            tuned[phase] = new CompiledPhaseEvaluator.PhaseWeights(
+                    a / scale, b / scale - w.famineWeight(), scale, w.famineWeight(), mobilityWeight);
+        }
+        return new CompiledPhaseEvaluator(tuned[0], tuned[1], tuned[2],
+                                          base.getOpeningThreshold(), base.getMidThreshold(), 0);
+    }
+
+    // Définition à coller dans PhaseEvaluator (même présentation que les profils existants)
+    public static String phaseProfileSnippet(CompiledPhaseEvaluator tuned, String comment) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("            case TUNED -> {\n")
+          .append("            // ").append(comment).append("\n");
+        String[] names = { "openingEval", "midEval", "endEval" };
+        CompiledPhaseEvaluator.PhaseWeights[] phases = { tuned.getOpening(), tuned.getMid(), tuned.getEnd() };
+        for (int i = 0; i < 3; i++) {
+            CompiledPhaseEvaluator.PhaseWeights w = phases[i];
+            if (Math.abs(w.mobilityWeight() - Evaluator.MOBILITY_WEIGHT) > 1e-9) {
+                sb.append(String.format(Locale.ROOT,
+                        "            // mobilityWeight réglé à %.4f : utiliser le fichier de profil pour l'appliquer%n",
+                        w.mobilityWeight()));
+            }
+            sb.append(String.format(Locale.ROOT,
+                    "            this.%s = new Evaluator(%n                %.4f,%n                %.4f,%n                %.4f,%n                %.4f%n            );%n",
+                    names[i], w.capturedWeight(), w.boardWeight(), w.scale(), w.famineWeight()));
+        }
+        sb.append("            this.openingThreshold = ").append(tuned.getOpeningThreshold()).append(";\n")
+          .append("            this.midThreshold = ").append(tuned.getMidThreshold()).append(";\n")
+          .append("            }");
+        return sb.toString();
+    }
+}
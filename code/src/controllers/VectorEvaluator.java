@@ -0,0 +1,81 @@
+package controllers;
+
+import models.Board;
+import models.Hole;
+import models.Player;
+
+/**
+ * Même heuristique que Evaluator (captures, graines par camp, famine, mobilité),
+ * calculée avec BoardKernels : sommes par camp et mobilité masquées par la parité
+ * des trous, en vectoriel si l'API Vector est disponible, en scalaire sinon.
+ *
+ * Les scores sont identiques à ceux de Evaluator avec les mêmes poids.
+ */
+public class VectorEvaluator extends Evaluator {
+
+    private final BoardKernels kernels;
+
+    public VectorEvaluator() {
+        this(1.0, 0.5, 0.5, 0.3);
+    }
+
+    public VectorEvaluator(double capturedWeight,
+                           double boardWeight,
+                           double scale,
+                           double famineWeight) {
+        this(capturedWeight, boardWeight, scale, famineWeight, BoardKernels.best());
+    }
+
+    public VectorEvaluator(double capturedWeight,
+                           double boardWeight,
+                           double scale,
+                           double famineWeight,
+                           BoardKernels kernels) {
+        super(capturedWeight, boardWeight, scale, famineWeight);
+        this.kernels = kernels;
+    }
+
+    public BoardKernels getKernels() {
+        return kernels;
+    }
+
+    @Override
+    public int evaluate(Board board, Player[] players, int id_idx) {
+        int[] red = new int[BoardKernels.NUM_HOLES];
+        int[] blue = new int[BoardKernels.NUM_HOLES];
+        int[] transparent = new int[BoardKernels.NUM_HOLES];
+        int[] totals = new int[BoardKernels.NUM_HOLES];
+        for (int i = 0; i < BoardKernels.NUM_HOLES; i++) {
+            Hole h = board.getHole(i);
+            red[i] = h.getRed();
+            blue[i] = h.getBlue();
+            transparent[i] = h.getTransparent();
+            totals[i] = red[i] + blue[i] + transparent[i];
+        }
+
+        int myBoardSeeds = kernels.sideSum(totals, id_idx);
+        int oppBoardSeeds = kernels.sideSum(totals, 1 - id_idx);
+        int myMobility = kernels.mobility(red, blue, transparent, id_idx);
+        int oppMobility = kernels.mobility(red, blue, transparent, 1 - id_idx);
+
+        // Même enchaînement d'opérations que Evaluator, pour des scores identiques
+        double capturedWeight = getCapturedWeight();
+        double boardWeight = getBoardWeight();
+        double myMaterial = capturedWeight * players[id_idx].getCaptured() + boardWeight * myBoardSeeds;
+        double oppMaterial = capturedWeight * players[1 - id_idx].getCaptured() + boardWeight * oppBoardSeeds;
+        double diff = myMaterial - oppMaterial;
+        diff += getFamineWeight() * (double) (myBoardSeeds - oppBoardSeeds);
+        diff += MOBILITY_WEIGHT * (double) (myMobility - oppMobility);
+
+        double rawScore = 50.0 + getScale() * diff;
+        if (rawScore < 0.0) rawScore = 0.0;
+        if (rawScore > 100.0) rawScore = 100.0;
+        return (int) Math.round(rawScore);
+    }
+
+    // Tous les termes sont calculés ensemble : le score exact est une réponse valable pour la fenêtre.
+    @Override
+    public int evaluate(Board board, Player[] players, int id_idx, double alpha, double beta) {
+        return evaluate(board, players, id_idx);
+    }
+}
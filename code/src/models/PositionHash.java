@@ -0,0 +1,123 @@
+package models;
+
+import java.util.Random;
+
+/**
+ * Hachage de Zobrist d'une position : contenu des 16 trous (par couleur) et
+ * graines capturées par chaque joueur.
+ *
+ * La clé est canonique et calculée du point de vue d'un joueur (en général celui
+ * qui a le trait). Les règles ne dépendent que de l'ordre circulaire des trous et
+ * de leur parité (Player.ownsHoleIndex) : tourner le plateau d'un nombre pair de
+ * trous donne une position identique, et le tourner d'un nombre impair en échangeant
+ * les joueurs donne une position équivalente pour l'autre joueur. Toutes ces
+ * positions partagent la même clé.
+ *
+ * Pour que la rotation soit gratuite, la clé du trou i est la clé de base tournée
+ * de 4*i bits : tourner le plateau d'un trou revient à tourner le hash de 4 bits
+ * (16 trous * 4 bits = 64 bits). La forme canonique est le minimum sur les 8
+ * rotations qui amènent les trous du joueur sur les indices pairs.
+ *
+ * Les tables aléatoires sont tirées avec une graine fixe, les clés sont donc
+ * identiques d'une exécution à l'autre.
+ */
+public final class PositionHash {
+
+    private static final int NUM_HOLES = 16;
+    private static final int NUM_COLORS = 3;
+    // 2 graines de chaque couleur par trou au départ => 32 graines max par couleur
+    private static final int MAX_COLOR_COUNT = 32;
+    private static final int MAX_CAPTURED = 96;
+    private static final int BITS_PER_HOLE = 64 / NUM_HOLES;
+
+    private static final long[][][] HOLE_KEYS = new long[NUM_HOLES][NUM_COLORS][MAX_COLOR_COUNT + 1];
+    private static final long[][] CAPTURED_KEYS = new long[2][MAX_CAPTURED + 1];
+
+    static {
+        Random rng = new Random(0x5EEDA1L);
+        for (int c = 0; c < NUM_COLORS; c++) {
+            // compte nul => clé nulle, un trou vide ne modifie pas le hash
+            for (int n = 1; n <= MAX_COLOR_COUNT; n++) {
+                long base = rng.nextLong();
+                for (int i = 0; i < NUM_HOLES; i++) {
+                    HOLE_KEYS[i][c][n] = Long.rotateLeft(base, BITS_PER_HOLE * i);
+                }
+            }
+        }
+        for (int p = 0; p < 2; p++) {
+            for (int n = 1; n <= MAX_CAPTURED; n++) {
+                CAPTURED_KEYS[p][n] = rng.nextLong();
+            }
+        }
+    }
+
+    private PositionHash() {
+    }
+
+    /**
+     * Clé canonique de la position vue par le joueur playerIndex
+     * (le joueur au trait pour une table de transposition ou un livre).
+     */
+    public static long of(Board board, Player[] players, int playerIndex) {
+        long holes = holesHash(board);
+        long best = Long.rotateRight(holes, BITS_PER_HOLE * playerIndex);
+        for (int r = playerIndex + 2; r < NUM_HOLES; r += 2) {
+            long candidate = Long.rotateRight(holes, BITS_PER_HOLE * r);
+            if (candidate < best) {
+                best = candidate;
+            }
+        }
+        // Le minimum est biaisé sur les bits de poids fort : on le remélange
+        // (bijection) avant d'ajouter les captures.
+        long h = mix(best);
+        h ^= CAPTURED_KEYS[0][players[playerIndex].getCaptured()];
+        h ^= CAPTURED_KEYS[1][players[1 - playerIndex].getCaptured()];
+        return h;
+    }
+
+    /**
+     * Rotation r utilisée par la forme canonique : le trou réel i correspond au
+     * trou canonique (i - r) mod 16. Sert à stocker les coups (livre, tables)
+     * indépendamment de l'orientation.
+     */
+    public static int canonicalRotation(Board board, int playerIndex) {
+        long holes = holesHash(board);
+        int bestRotation = playerIndex;
+        long best = Long.rotateRight(holes, BITS_PER_HOLE * playerIndex);
+        for (int r = playerIndex + 2; r < NUM_HOLES; r += 2) {
+            long candidate = Long.rotateRight(holes, BITS_PER_HOLE * r);
+            if (candidate < best) {
+                best = candidate;
+                bestRotation = r;
+            }
+        }
+        return bestRotation;
+    }
+
+    public static int canonicalHole(int holeIndex, int rotation) {
+        return (holeIndex - rotation) & (NUM_HOLES - 1);
+    }
+
+    public static int actualHole(int canonicalHole, int rotation) {
+        return (canonicalHole + rotation) & (NUM_HOLES - 1);
+    }
+
+    private static long holesHash(Board board) {
+        long h = 0L;
+        for (int i = 0; i < NUM_HOLES; i++) {
+            Hole hole = board.getHole(i);
+            long[][] keys = HOLE_KEYS[i];
+            h ^= keys[0][hole.getRed()];
+            h ^= keys[1][hole.getBlue()];
+            h ^= keys[2][hole.getTransparent()];
+        }
+        return h;
+    }
+
+    // Finaliseur de MurmurHash3 (bijectif).
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}